@@ -8,6 +8,7 @@ import simulation.networks.simulator.*;
  * @author ykk
  */
 public abstract class CommChannel
+    implements java.io.Serializable
 {
     //Members
     /** Transmission rate (in bytes per second).
@@ -48,7 +48,7 @@ public class Empirical
      */
     public double transmitProb(CommNode source, CommNode destination)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	{
 	    double prob = channel.value(source.distance(destination));
 	    if (prob < 0.0)
@@ -1,6 +1,5 @@
 package simulation.communications.channels;
 
-import simulation.distributions.*;
 import simulation.communications.channels.data.*;
 import simulation.communications.nodes.*;
 import simulation.networks.*;
@@ -13,9 +12,6 @@ public class MappedChannel
     extends CommChannel
 {
     //Members
-    /** Random number.
-     */
-    private Uniform random = new Uniform(0,1);
     /** Channel map.
      */
     public ChannelMap channel;
@@ -75,13 +71,16 @@ public class MappedChannel
     }
 
     /** Return an instance of whether an transmission is successful.
+     * Drawn from the random stream of the destination.
      * @param source source node
      * @param destination destination node
      * @return if an instance of transmission is successful
+     * @see CommNode#receiveStream
      */
     private boolean txSuccess(CommNode source, CommNode destination)
     {
-	return (random.getInstance() < transmitProb(source,destination));
+	return (destination.receiveStream.nextDouble() < 
+		transmitProb(source,destination));
     }
 
    /** Provide probability of success to transmit packet from source to destination.
@@ -91,7 +90,7 @@ public class MappedChannel
      */
     public double transmitProb(CommNode source, CommNode destination)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	{
 	    double prob = channel.channelProb(source, destination);
 	    if (prob < 0.0)
@@ -1,6 +1,5 @@
 package simulation.communications.channels;
 
-import simulation.distributions.*;
 import simulation.communications.nodes.*;
 import simulation.networks.simulator.*;
 
@@ -16,9 +15,6 @@ public class PathLoss
      * Must be negative.
      */
     public double exponent;
-    /** Random number.
-     */
-    private Uniform random = new Uniform(0,1);
 
     //Methods
     /** Constructor to generate communication channel.
@@ -84,13 +80,16 @@ public class PathLoss
     }
 
     /** Return an instance of whether an transmission is successful.
+     * Drawn from the random stream of the destination.
      * @param source source node
      * @param destination destination node
      * @return if an instance of transmission is successful
+     * @see CommNode#receiveStream
      */
     private boolean txSuccess(CommNode source, CommNode destination)
     {
-	return (random.getInstance() < transmitProb(source,destination));
+	return (destination.receiveStream.nextDouble() < 
+		transmitProb(source,destination));
     }
 
     /** Provide probability of success to transmit packet from source 
@@ -101,7 +100,7 @@ public class PathLoss
      */
     public double transmitProb(CommNode source, CommNode destination)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	    return Math.pow(Math.E,source.distance(destination)*exponent);
 	else
 	    return 0.0;
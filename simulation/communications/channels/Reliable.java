@@ -35,7 +35,7 @@ public class Reliable
      */
     public boolean transmit(CommNode source, CommNode destination, Object packet)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	    destination.receive(source, packet);
 	return true;
     }
@@ -50,7 +50,7 @@ public class Reliable
     public boolean transmit(MACNode source, MACNode destination, 
 			    Object packet, Simulator simulator)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	    destination.receive(source, packet, simulator);
 	return true;
     }
@@ -62,7 +62,7 @@ public class Reliable
      */
     public double transmitProb(CommNode source, CommNode destination)
     {
-	if (source.transmitPartners.indexOf(destination) != -1)
+	if (source.isTransmitPartner(destination))
 	    return 1.0;
 	else
 	    return 0.0;
@@ -60,14 +60,19 @@ public class DistanceChannelMap
 	Distribution chanDistro;
 	int networkSize = network.nodes.size();
 	this.chanProb = new double[networkSize][networkSize];
+	CoordinateStore store = network.pack();
+	double[] distance = new double[networkSize];
 	
 	for (int i = 0; i < networkSize; i++)
+	{
+	    Geometry.distances(store.x[i], store.y[i], store.x, store.y, 
+			       0, networkSize, distance);
 	    for (int j = 0; j < networkSize; j++)
 		if (i != j ||
-		    ((Node) network.nodes.get(i)).transmitPartners.indexOf((Node) network.nodes.get(j)) != -1)
+		    ((Node) network.nodes.get(i)).isTransmitPartner((Node) network.nodes.get(j)))
 		{
 		    chanProb[i][j] = -1;
-		    chanInfo = getChanInfo(((Node) network.nodes.get(i)).distance((Node) network.nodes.get(j)));
+		    chanInfo = getChanInfo(distance[j]);
 		    chanDistro = distro.newDistribution(chanInfo.probability, Math.pow(chanInfo.stdDev,2.0));
 
 		    while(chanProb[i][j] < 0 || chanProb[i][j] > 1)
@@ -78,6 +83,7 @@ public class DistanceChannelMap
 		}
 		else
 		    chanProb[i][j] = 0;
+	}
     }
 
     /** Get channel information for distance, based on nearest distance.
@@ -105,8 +111,8 @@ public class DistanceChannelMap
      */
     public double channelProb(Node source, Node destination)
     {
-	int srcIndex = network.nodes.indexOf(source);
-	int dstIndex = network.nodes.indexOf(destination);
+	int srcIndex = network.indexOf(source);
+	int dstIndex = network.indexOf(destination);
 	return chanProb[srcIndex][dstIndex];
     }
 
@@ -122,12 +128,17 @@ public class DistanceChannelMap
 	DistanceChannelMap newMap = new DistanceChannelMap(network, newChanData, distro);
 
 	double[][] newChanProb = new double[networkSize][networkSize];
+	CoordinateStore store = network.pack();
+	double[] distances = new double[networkSize];
 
 	for (int i = 0; i < networkSize; i++)
+	{
+	    Geometry.distances(store.x[i], store.y[i], store.x, store.y, 
+			       0, networkSize, distances);
 	    for (int j = 0; j < networkSize; j++)
 		if (chanProb[i][j] != 0)
 		{
-		    distance = ((Node) network.nodes.get(i)).distance((Node) network.nodes.get(j));
+		    distance = distances[j];
 		    oldChanInfo = getChanInfo(distance);
 		    newChanInfo = newMap.getChanInfo(distance);
 		    newMap.chanProb[i][j] = (newChanInfo.probability/oldChanInfo.probability)*chanProb[i][j];
@@ -136,6 +147,7 @@ public class DistanceChannelMap
 		}
 		else
 		    newMap.chanProb[i][j] = chanProb[i][j];
+	}
 
 	return newMap;
     }
@@ -153,12 +165,17 @@ public class DistanceChannelMap
 	newMap.buildMap();
 
 	double[][] newChanProb = new double[networkSize][networkSize];
+	CoordinateStore store = network.pack();
+	double[] distances = new double[networkSize];
 
 	for (int i = 0; i < networkSize; i++)
+	{
+	    Geometry.distances(store.x[i], store.y[i], store.x, store.y, 
+			       0, networkSize, distances);
 	    for (int j = 0; j < networkSize; j++)
 		if (chanProb[i][j] != 0)
 		{
-		    distance = ((Node) network.nodes.get(i)).distance((Node) network.nodes.get(j));
+		    distance = distances[j];
 		    oldChanInfo = getChanInfo(distance);
 		    newChanInfo = newMap.getChanInfo(distance);
 		    newMap.chanProb[i][j] = newChanInfo.probability-oldChanInfo.probability+chanProb[i][j];
@@ -169,6 +186,7 @@ public class DistanceChannelMap
 		}
 		else
 		    newMap.chanProb[i][j] = chanProb[i][j];
+	}
 
 	return newMap;
     }
@@ -0,0 +1,80 @@
+package simulation.communications.channels.data;
+
+import java.nio.*;
+import simulation.networks.*;
+import simulation.networks.nodes.*;
+
+/** Class to map channel reception probabilities to links of a network, 
+ * by link of its frozen {@link Adjacency}.
+ * Only links are kept, i.e., pairs of nodes that are not linked have
+ * zero probability, which takes memory in proportion to the number of
+ * links instead of the square of the number of nodes.  Probabilities
+ * can be kept in a buffer, e.g., mapped from a {@link TopologySnapshot}.
+ * The map is bound to the adjacency it is constructed with, and so 
+ * cannot be used once the network is frozen again, e.g., when its 
+ * neighbors are generated, pruned or updated.
+ * @see Network#freeze()
+ * @author ykk
+ */
+public class LinkChannelMap
+    extends ChannelMap
+{
+    //Members
+    /** Adjacency of network links are indexed by.
+     */
+    public Adjacency adjacency;
+    /** Reception probabilities, by index of link in 
+     * {@link Adjacency#transmitIds}.
+     */
+    public DoubleBuffer probabilities;
+
+    //Methods
+    /** Constructor.
+     * @param network reference to network
+     * @param probabilities reception probabilities, by link of 
+     *                      frozen adjacency of network
+     */
+    public LinkChannelMap(Network network, DoubleBuffer probabilities)
+    {
+	super(network);
+	this.adjacency = network.adjacency;
+	this.probabilities = probabilities;
+    }
+
+    /** Constructor, taking probabilities of links of another channel map.
+     * @param map channel map to take probabilities from
+     */
+    public LinkChannelMap(ChannelMap map)
+    {
+	super(map.network);
+	adjacency = (network.adjacency == null)? network.freeze():network.adjacency;
+	probabilities = DoubleBuffer.allocate(adjacency.transmitIds.length);
+	for (int i = 0; i < adjacency.nodes.length; i++)
+	    for (int j = adjacency.transmitStart[i]; j < adjacency.transmitStart[i+1]; j++)
+		probabilities.put(j, map.channelProb(adjacency.nodes[i], 
+						     adjacency.nodes[adjacency.transmitIds[j]]));
+    }
+
+    /** Function to map channel probability map.
+     * Nothing to be done, since probabilities are given at construction.
+     */
+    public void buildMap()
+    {
+    }
+
+    /** Return channel reception probabilities using map.
+     * @param source source node
+     * @param destination destination node
+     * @return reception probability from source to destination, 
+     *         0 if they are not linked
+     */
+    public double channelProb(Node source, Node destination)
+    {
+	if (network.adjacency != adjacency)
+	    throw new RuntimeException(this+" maps links of an adjacency that is no longer the network's, since the network is frozen again");
+	if (source.adjacency != adjacency || destination.adjacency != adjacency)
+	    return 0;
+	int link = adjacency.transmitLink(source.id, destination.id);
+	return (link == -1)? 0:probabilities.get(link);
+    }
+}
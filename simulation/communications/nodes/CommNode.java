@@ -5,6 +5,7 @@ import simulation.networks.channels.*;
 import simulation.networks.nodes.*;
 import simulation.communications.channels.*;
 import simulation.communications.queues.*;
+import simulation.distributions.*;
 
 /** Basic class for a communication node.
  * @author ykk
@@ -19,6 +20,13 @@ public abstract class CommNode
     /** Link layer queue.
      */
     public Queue queue;
+    /** Random stream of node's receptions.
+     * Unreliable channels draw the success of packets received by the 
+     * node from it, so that nodes simulated by different threads do not
+     * share a stream.
+     * @see CommChannel#transmitProb(CommNode source, CommNode destination)
+     */
+    public RandomStream receiveStream = RandomStreams.current().stream();
 
     //Methods
     /** Constructor to get a new node, having a new instance of queue.
@@ -4,7 +4,7 @@ package simulation.communications.packets;
  * @author ykk
  */
 public class Packet
-    implements PacketFactory
+    implements PacketFactory, java.io.Serializable
 {
     //Members
     /** Packet length.
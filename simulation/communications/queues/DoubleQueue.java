@@ -79,6 +79,23 @@ public class DoubleQueue
 	return new DoubleQueue(queue1.newQueue(), queue2.newQueue());
     }
 
+    /** Save content of both queues.
+     * @return content of both queues
+     */
+    public Object saveState()
+    {
+	return new Object[] {queue1.saveState(), queue2.saveState()};
+    }
+
+    /** Restore content of both queues.
+     * @param state content returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	queue1.restoreState(((Object[]) state)[0]);
+	queue2.restoreState(((Object[]) state)[1]);
+    }
+
     /** Return size of queue, but useless due to the 2 queues.
      * @return -1
      */
@@ -41,6 +41,23 @@ public abstract class Queue
 	return (indexOf(packet) != -1);
     }
 
+    /** Save content of queue.
+     * @return copy of packets in queue
+     */
+    public Object saveState()
+    {
+	return new Vector(this);
+    }
+
+    /** Restore content of queue.
+     * @param state content returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	clear();
+	addAll((Vector) state);
+    }
+
     /** Test function for queue.
      * Events are:
      * Add 10 packets;
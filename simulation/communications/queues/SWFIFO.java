@@ -81,6 +81,23 @@ public class SWFIFO
 	return super.remove(packet);
     }
 
+    /** Save content of queue and pointer to next packet.
+     * @return content and pointer to next packet
+     */
+    public Object saveState()
+    {
+	return new Object[] {super.saveState(), new Integer(lastGetIndex)};
+    }
+
+    /** Restore content of queue and pointer to next packet.
+     * @param state content returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	super.restoreState(((Object[]) state)[0]);
+	lastGetIndex = ((Integer) ((Object[]) state)[1]).intValue();
+    }
+
     public Queue newQueue()
     {
 	return new SWFIFO(this.queueSize, this.windowSize);
@@ -67,6 +67,23 @@ public class TxRxQueue
 	return new TxRxQueue(transmit.newQueue(), receive.newQueue());
     }
 
+    /** Save content of both queues.
+     * @return content of both queues
+     */
+    public Object saveState()
+    {
+	return new Object[] {transmit.saveState(), receive.saveState()};
+    }
+
+    /** Restore content of both queues.
+     * @param state content returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	transmit.restoreState(((Object[]) state)[0]);
+	receive.restoreState(((Object[]) state)[1]);
+    }
+
     /** Return size of queue, but useless due to the 2 queues.
      * @return -1
      */
@@ -68,7 +68,7 @@ public class Bernoulli
      */
     public double getInstance()
     {
-	if (Math.random() < probability)
+	if (random.nextDouble() < probability)
 	    return 1.0;
 	else
 	    return 0.0;
@@ -78,7 +78,7 @@ public class Binomial
     {
 	double result = 0;
 	for (int i = 0; i < sampleSize; i++)
-	    if (Math.random() < probability) result++;
+	    if (random.nextDouble() < probability) result++;
 
 	return result;
     }
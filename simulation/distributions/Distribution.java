@@ -6,7 +6,19 @@ import simulation.results.*;
  * @author ykk
  */
 public abstract class Distribution
+    implements Cloneable, java.io.Serializable
 {
+    //Members
+    /** Random stream of distribution.
+     * Split from the random streams of the thread that constructs the
+     * distribution.  The stream is not synchronized, and so a distribution
+     * must not be sampled from multiple threads; use {@link #split()}
+     * to give each its own.
+     * @see RandomStreams#current()
+     */
+    protected RandomStream random = RandomStreams.current().stream();
+
+    //Methods
     /** Main function to return samples, mean and variance of random variable.
      * Purpose of the function is to test the distribution.
      * @param distri distribution being tested
@@ -47,6 +59,49 @@ public abstract class Distribution
      */
     public abstract double getInstance();
 
+    /** Set random stream of distribution, e.g., to replay a stream.
+     * @param random random stream to use
+     */
+    public void setStream(RandomStream random)
+    {
+	this.random = random;
+    }
+
+    /** Save position of random stream of distribution, e.g., to roll
+     * back samples drawn.
+     * @return position of random stream
+     */
+    public Object saveState()
+    {
+	return random.saveState();
+    }
+
+    /** Restore position of random stream of distribution.
+     * @param state position returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	random.restoreState(state);
+    }
+
+    /** Return copy of distribution with an independent random stream
+     * split from this distribution's.
+     * @return copy of distribution
+     */
+    public Distribution split()
+    {
+	try
+	{
+	    Distribution copy = (Distribution) clone();
+	    copy.random = random.split();
+	    return copy;
+	}
+	catch (CloneNotSupportedException e)
+	{
+	    throw new RuntimeException(this+" cannot be split: "+e);
+	}
+    }
+
     /** Return probability of distribution lies within specified interval.
      * @param startValue value starting range under consideration (included)
      * @param endValue value ending range under consideration (excluded)
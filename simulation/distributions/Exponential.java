@@ -59,6 +59,6 @@ public class Exponential
      */
     public double getInstance()
     {
-	return -1*mean*Math.log(Math.random());
+	return -1*mean*Math.log(1-random.nextDouble());
     }
 }
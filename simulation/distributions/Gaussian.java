@@ -71,6 +71,6 @@ public class Gaussian
      */
     public double getInstance()
     {
-	return mean+Math.sqrt(variance)*Math.sqrt(-2*Math.log(Math.random()))*Math.cos(2*Math.PI*Math.random());
+	return mean+Math.sqrt(variance)*Math.sqrt(-2*Math.log(1-random.nextDouble()))*Math.cos(2*Math.PI*random.nextDouble());
     }
 }   
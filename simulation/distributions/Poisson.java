@@ -35,6 +35,24 @@ public class Poisson
     {
 	this.mean = mean;
 	interarrive = new Exponential(1/mean);
+	interarrive.random = random;
+    }
+
+    /** Set random stream of distribution, shared with its interarrival.
+     * @param random random stream to use
+     */
+    public void setStream(RandomStream random)
+    {
+	super.setStream(random);
+	interarrive.setStream(random);
+    }
+
+    public Distribution split()
+    {
+	Poisson copy = (Poisson) super.split();
+	copy.interarrive = new Exponential(interarrive.mean);
+	copy.interarrive.random = copy.random;
+	return copy;
     }
 
     public boolean isDiscrete()
@@ -0,0 +1,115 @@
+package simulation.distributions;
+
+/** Splittable stream of random numbers that can be saved and restored.
+ * Uses the SplitMix64 algorithm of java.util.SplittableRandom, and so 
+ * gives the same numbers for the same seed.  Unlike SplittableRandom,
+ * the position of the stream is kept when it is serialized, e.g., in a
+ * checkpoint of the simulation.
+ * @see RandomStreams
+ * @author ykk
+ */
+public class RandomStream
+    implements java.io.Serializable
+{
+    //Members
+    /** Current seed (position) of stream.
+     */
+    private long seed;
+    /** Step between seeds of stream (odd).
+     */
+    private final long gamma;
+    /** Step of streams created from seed.
+     */
+    private static final long goldenGamma = 0x9e3779b97f4a7c15L;
+
+    //Methods
+    /** Constructor.
+     * @param seed seed of stream
+     */
+    public RandomStream(long seed)
+    {
+	this(seed, goldenGamma);
+    }
+
+    /** Constructor.
+     * @param seed seed of stream
+     * @param gamma step between seeds
+     */
+    private RandomStream(long seed, long gamma)
+    {
+	this.seed = seed;
+	this.gamma = gamma;
+    }
+
+    /** Return next random long.
+     * @return random long
+     */
+    public long nextLong()
+    {
+	return mix64(nextSeed());
+    }
+
+    /** Return next random double, uniformly distributed in [0,1).
+     * @return random double
+     */
+    public double nextDouble()
+    {
+	return (nextLong() >>> 11)*0x1.0p-53;
+    }
+
+    /** Return new independent stream, splitting it from this stream.
+     * @return random stream
+     */
+    public RandomStream split()
+    {
+	return new RandomStream(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /** Save position of stream.
+     * @return position of stream
+     */
+    public Object saveState()
+    {
+	return new Long(seed);
+    }
+
+    /** Restore position of stream.
+     * @param state position returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	seed = ((Long) state).longValue();
+    }
+
+    /** Advance seed of stream.
+     * @return new seed
+     */
+    private long nextSeed()
+    {
+	return seed += gamma;
+    }
+
+    /** Mix bits of seed into random long.
+     * @param z seed
+     * @return mixed bits
+     */
+    private static long mix64(long z)
+    {
+	z = (z ^ (z >>> 30))*0xbf58476d1ce4e5b9L;
+	z = (z ^ (z >>> 27))*0x94d049bb133111ebL;
+	return z ^ (z >>> 31);
+    }
+
+    /** Mix bits of seed into gamma of new stream.
+     * @param z seed
+     * @return odd gamma with enough bit transitions
+     */
+    private static long mixGamma(long z)
+    {
+	z = (z ^ (z >>> 33))*0xff51afd7ed558ccdL;
+	z = (z ^ (z >>> 33))*0xc4ceb9fe1a85ec53L;
+	z = (z ^ (z >>> 33)) | 1L;
+	int transitions = Long.bitCount(z ^ (z >>> 1));
+	return (transitions < 24)? z ^ 0xaaaaaaaaaaaaaaaaL:z;
+    }
+}
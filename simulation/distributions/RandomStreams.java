@@ -0,0 +1,85 @@
+package simulation.distributions;
+
+import java.util.*;
+
+/** Random number service of a simulation.
+ * Each component (e.g., a {@link Distribution}) takes an independent 
+ * stream split from the service, so that streams are drawn from without 
+ * locks and a simulation can be replayed from its seed, as long as its 
+ * components are constructed in the same order.
+ * <BR>
+ * Each thread has a current service, which components constructed on 
+ * the thread split their streams from.  A thread's service is seeded 
+ * from the system property simulation.seed if it is set, else randomly.
+ * Replications run in parallel each set a service of their own.
+ * @see Distribution#random
+ * @author ykk
+ */
+public class RandomStreams
+{
+    //Members
+    /** Seed of random streams.
+     */
+    public final long seed;
+    /** Generator that streams are split from.
+     */
+    private RandomStream root;
+    /** Random streams of current thread.
+     */
+    private static ThreadLocal current = new ThreadLocal();
+
+    //Methods
+    /** Constructor.
+     * @param seed seed of random streams
+     */
+    public RandomStreams(long seed)
+    {
+	this.seed = seed;
+	root = new RandomStream(seed);
+    }
+
+    /** Constructor with random seed.
+     */
+    public RandomStreams()
+    {
+	this(new SplittableRandom().nextLong());
+    }
+
+    /** Return new independent stream.
+     * Streams must not be shared between threads.
+     * @return random stream
+     */
+    public RandomStream stream()
+    {
+	return root.split();
+    }
+
+    /** Return random streams of current thread.
+     * @return random streams
+     */
+    public static RandomStreams current()
+    {
+	RandomStreams streams = (RandomStreams) current.get();
+	if (streams == null)
+	{
+	    Long seed = Long.getLong("simulation.seed");
+	    streams = (seed == null)? new RandomStreams():
+		new RandomStreams(seed.longValue());
+	    current.set(streams);
+	}
+	return streams;
+    }
+
+    /** Set random streams of current thread.
+     * @param streams random streams
+     */
+    public static void setCurrent(RandomStreams streams)
+    {
+	current.set(streams);
+    }
+
+    public String toString()
+    {
+	return "RandomStreams(seed "+seed+")";
+    }
+}
@@ -77,6 +77,6 @@ public class Uniform
      */
     public double getInstance()
     {
-	return Math.random()*(endValue-startValue)+startValue;
+	return random.nextDouble()*(endValue-startValue)+startValue;
     }
 }
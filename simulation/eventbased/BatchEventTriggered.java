@@ -0,0 +1,27 @@
+package simulation.eventbased;
+
+import simulation.eventbased.*;
+
+/** Interface for event triggered object that processes simultaneous 
+ * events as a batch.
+ * When the next event to run is for such an object, all its pending
+ * events of the same time are taken from the queue and run with a single
+ * call, in the order they are scheduled.  This allows the object to see,
+ * e.g., all receptions ending at the same time at once.  Events of other 
+ * objects of the same time can run before or after the batch.
+ * @see Simulator#runNextEvent()
+ * @author ykk
+ */
+public interface BatchEventTriggered
+    extends TypedEventTriggered
+{
+    /** Function to run a batch of simultaneous events.
+     * The array of events is reused by the simulator, and is only valid
+     * during the call.
+     * @param time current time
+     * @param events events to run, in order they are scheduled
+     * @param count number of events in batch (at least 2)
+     * @param simulator reference to simulator
+     */
+    public void run(double time, Event[] events, int count, Simulator simulator);
+}
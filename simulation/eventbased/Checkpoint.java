@@ -0,0 +1,124 @@
+package simulation.eventbased;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/** Class to checkpoint simulation state to disk, and restore it.
+ * The state is the object graph reachable from the object saved, e.g.,
+ * a {@link simulation.eventbased.mediumaccess.MACTrial} with its 
+ * simulator (and pending events), network, nodes, queues, random 
+ * streams and results.  The graph is saved with Java serialization, and
+ * so every object in it must be serializable.  A checkpoint is restored 
+ * from a memory-mapped file, so that many branches of an experiment can 
+ * fork from a single warmed-up state.
+ * <BR>
+ * Static state is not saved, e.g., the random streams of threads used
+ * by components constructed after restore.  Neither are the observer 
+ * and metrics of a simulator, which are set again after restore if
+ * they are needed.
+ * @see Simulator#observer
+ * @see simulation.networks.simulator.Simulator#metrics
+ * @see simulation.distributions.RandomStream
+ * @author ykk
+ */
+public class Checkpoint
+{
+    //Methods
+    /** Save state to file.
+     * @param state object to save, with objects it references
+     * @param filename name of file to save to
+     */
+    public static void save(Object state, String filename)
+    {
+	try
+	{
+	    ObjectOutputStream output = new ObjectOutputStream(
+		new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+	    try
+	    {
+		output.writeObject(state);
+	    }
+	    finally
+	    {
+		output.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException("Checkpoint fails to save "+state+
+				       " to "+filename+": "+e);
+	}
+    }
+
+    /** Restore state from file.
+     * Each call returns a separate copy of the state.
+     * @param filename name of file to restore from
+     * @return object saved
+     */
+    public static Object restore(String filename)
+    {
+	try
+	{
+	    FileChannel channel = new RandomAccessFile(filename, "r").getChannel();
+	    try
+	    {
+		ObjectInputStream input = new ObjectInputStream(
+		    new BufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY,
+						      0, channel.size())));
+		return input.readObject();
+	    }
+	    finally
+	    {
+		channel.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException("Checkpoint fails to restore from "+
+				       filename+": "+e);
+	}
+	catch (ClassNotFoundException e)
+	{
+	    throw new RuntimeException("Checkpoint fails to restore from "+
+				       filename+": "+e);
+	}
+    }
+
+    /** Input stream over a byte buffer, e.g., of a memory-mapped file.
+     */
+    private static class BufferInputStream
+	extends InputStream
+    {
+	/** Buffer to read from.
+	 */
+	private ByteBuffer buffer;
+
+	/** Constructor.
+	 * @param buffer buffer to read from
+	 */
+	public BufferInputStream(ByteBuffer buffer)
+	{
+	    this.buffer = buffer;
+	}
+
+	public int read()
+	{
+	    return buffer.hasRemaining()? (buffer.get() & 0xff):-1;
+	}
+
+	public int read(byte[] bytes, int offset, int length)
+	{
+	    if (!buffer.hasRemaining())
+		return -1;
+	    length = Math.min(length, buffer.remaining());
+	    buffer.get(bytes, offset, length);
+	    return length;
+	}
+
+	public int available()
+	{
+	    return buffer.remaining();
+	}
+    }
+}
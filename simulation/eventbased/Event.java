@@ -4,7 +4,7 @@ package simulation.eventbased;
  * @author ykk
  */
 public class Event
-    implements Comparable
+    implements Comparable, java.io.Serializable
 {
     //Members
     /** Time to process event.
@@ -21,6 +21,47 @@ public class Event
      * a string array in the event triggered objects.
      */
     public String event;
+    /** Kind of typed event.
+     * Defaulted to {@link #untyped} for events identified by string reference.
+     * @see TypedEventTriggered
+     */
+    public int kind = untyped;
+    /** Payload of typed event.
+     * Defaulted to null.
+     */
+    public Object payload = null;
+    /** Kind of event identified by string reference.
+     */
+    public static final int untyped = -1;
+    /** Order in which event is inserted into the event queue.
+     * Assigned by the event queue and used to run events of equal
+     * time in first-in-first-out order.
+     * @see simulation.eventbased.queues.EventQueue
+     */
+    public long sequence;
+    /** Index of event in an array based event queue, maintained by the
+     * queue so that the event can be removed in O(log n) time.
+     * -1 if the event is not in such a queue.
+     * @see simulation.eventbased.queues.HeapEventQueue
+     */
+    public int position = -1;
+    /** Indicate if event is in the event queue of a simulator.
+     */
+    boolean queued = false;
+    /** Indicate if event is cancelled.
+     * Cancelled events are discarded when they reach the head of queue.
+     */
+    boolean cancelled = false;
+    /** Indicate if event belongs to the pool of a simulator.
+     * @see Simulator#schedule(double time, TypedEventTriggered object, int kind, Object payload)
+     */
+    boolean pooled = false;
+    /** Previous pending event of the same object.
+     */
+    Event prevOfObject;
+    /** Next pending event of the same object.
+     */
+    Event nextOfObject;
 
     //Methods
     /** Constructor for event.
@@ -35,9 +76,24 @@ public class Event
 	this.object = object;
 	this.event = event;
     }
+
+    /** Constructor for typed event.
+     * @param time time to run event
+     * @param object event triggered object to process event
+     * @param kind kind of event
+     * @param payload payload of event
+     * @see #kind
+     */
+    public Event(double time, TypedEventTriggered object, int kind, Object payload)
+    {
+	this.time = time;
+	this.object = object;
+	this.kind = kind;
+	this.payload = payload;
+    }
     
     /** Comparable interface.
-     * Compared by time.
+     * Compared by time, with ties broken by order of insertion.
      * @param object object to compare this object to
      * @return -1 if smaller; 0 if equal; and 1 if bigger
      */
@@ -46,7 +102,24 @@ public class Event
 	if (!(object instanceof Event))
 	    throw new RuntimeException(object+" is not an instance of the Event class. It cannot be compared to it as a result.");
 
-	return compareTime(((Event) object).time);
+	int result = compareTime(((Event) object).time);
+	if (result != 0)
+	    return result;
+	else if (sequence == ((Event) object).sequence)
+	    return 0;
+	else
+	    return (sequence > ((Event) object).sequence)? 1:-1;
+    }
+
+    /** Indicate if event is to be run before the event specified.
+     * Events are ordered by time, and then by order of insertion.
+     * @param event event to compare to
+     * @return if this event is to be run first
+     */
+    public boolean precedes(Event event)
+    {
+	return (time < event.time) ||
+	    ((time == event.time) && (sequence < event.sequence));
     }
 
     /** Indicate if event precedes time indicated.
@@ -63,11 +136,20 @@ public class Event
 	    return -1;
     }
 
+    /** Indicate if event is scheduled and not cancelled.
+     * @return if event is pending in a simulator
+     * @see Simulator#cancel(Event event)
+     */
+    public boolean isPending()
+    {
+	return queued && !cancelled;
+    }
+
     /** Return string representation of event.
      * @return string representation
      */
     public String toString()
     {
-	return time+"\t"+event+" by "+object;
+	return time+"\t"+((kind == untyped)? event:"kind "+kind)+" by "+object;
     }
 }
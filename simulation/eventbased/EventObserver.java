@@ -0,0 +1,25 @@
+package simulation.eventbased;
+
+import simulation.eventbased.*;
+
+/** Interface for observer of events run by a simulator, e.g., to trace them.
+ * The observer is called before each event is run, and before each timer
+ * is fired, on the thread of the simulator.
+ * @see Simulator#observer
+ * @author ykk
+ */
+public interface EventObserver
+{
+    /** Function called when event is run.
+     * @param event event run
+     * @param simulator simulator running event
+     */
+    public void eventRun(Event event, Simulator simulator);
+
+    /** Function called when timer is fired.
+     * @param timer timer fired
+     * @param time time timer is fired at
+     * @param simulator simulator firing timer
+     */
+    public void timerFired(EventTimer timer, double time, Simulator simulator);
+}
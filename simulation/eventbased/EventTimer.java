@@ -0,0 +1,80 @@
+package simulation.eventbased;
+
+/** Timer for short and frequently re-armed timeouts, e.g., slot countdowns.
+ * A timer is armed in the timer wheel of a simulator, instead of its 
+ * event queue, and fires a typed event (without payload) for its object.  
+ * A timer is allocated once, and can be re-armed or disarmed in constant
+ * time.
+ * @see Simulator#arm(EventTimer timer, double time)
+ * @see Simulator#disarm(EventTimer timer)
+ * @see TimerWheel
+ * @author ykk
+ */
+public class EventTimer
+    implements java.io.Serializable
+{
+    //Members
+    /** Object to fire timer to.
+     */
+    public TypedEventTriggered object;
+    /** Kind of event fired.
+     */
+    public int kind;
+    /** Time timer is armed to fire at.
+     */
+    double time;
+    /** Order in which timer is armed, for timers of equal time.
+     */
+    long sequence;
+    /** Indicate if timer is armed.
+     */
+    boolean armed = false;
+    /** Level of wheel timer is in.
+     * {@link TimerWheel#overflow} for timers beyond the wheel,
+     * {@link TimerWheel#firing} for timers in the batch being fired, and
+     * {@link TimerWheel#none} for timers not armed.
+     */
+    int level = TimerWheel.none;
+    /** Slot of level timer is in.
+     */
+    int slot;
+    /** Previous timer in slot.
+     */
+    EventTimer prev;
+    /** Next timer in slot.
+     */
+    EventTimer next;
+
+    //Methods
+    /** Constructor.
+     * @param object object to fire timer to
+     * @param kind kind of event fired
+     */
+    public EventTimer(TypedEventTriggered object, int kind)
+    {
+	this.object = object;
+	this.kind = kind;
+    }
+
+    /** Indicate if timer is armed.
+     * @return if timer is armed and not fired
+     */
+    public boolean isArmed()
+    {
+	return armed;
+    }
+
+    /** Return time timer is armed to fire at.
+     * @return time of timer (undefined if timer is not armed)
+     */
+    public double time()
+    {
+	return time;
+    }
+
+    public String toString()
+    {
+	return "Timer of kind "+kind+" for "+object+
+	    (armed? " at "+time:" (not armed)");
+    }
+}
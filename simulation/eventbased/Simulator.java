@@ -2,10 +2,14 @@ package simulation.eventbased;
 
 import java.util.*;
 import simulation.eventbased.*;
+import simulation.eventbased.queues.*;
 import simulation.utilities.structures.*;
 import simulation.utilities.references.*;
 
 /** Event based simulators.
+ * Events added are returned as handles, which can be cancelled in
+ * constant time.  Cancelled events are left in the queue and discarded
+ * when they reach the head of the queue.
  * @author ykk
  */
 public class Simulator
@@ -17,97 +21,523 @@ public class Simulator
      */
     private double time=0;
     /** Event queue.
+     * Defaulted to 4-ary heap.
+     * Note that the queue can hold cancelled events.
+     * @see HeapEventQueue
+     * @see #size()
      */
-    public SortedVector queue = new SortedVector();
-   
+    public EventQueue queue;
+    /** Number of events in queue that are not cancelled.
+     */
+    private int pending = 0;
+    /** Map of object to first of its pending events.
+     * Pending events of an object are linked through the event.
+     * @see Event#nextOfObject
+     */
+    private IdentityHashMap objectEvents = new IdentityHashMap();
+    /** Indicate if events and their payloads are reused once run.
+     * Defaulted to true.  Simulators that can roll back keep events
+     * that are run, and so do not reuse them.
+     * @see #schedule(double time, TypedEventTriggered object, int kind, Object payload)
+     */
+    public boolean recycling = true;
+    /** Pool of events available for reuse.
+     * @see #schedule(double time, TypedEventTriggered object, int kind, Object payload)
+     */
+    private Event[] pool = new Event[64];
+    /** Number of events in pool.
+     */
+    private int poolSize = 0;
+    /** Timer wheel for short and frequently re-armed timers.
+     * Created with a tick of {@link #timerTick} when the first timer 
+     * is armed, unless set before.
+     * @see #arm(EventTimer timer, double time)
+     */
+    public TimerWheel timers;
+    /** Observer of events run, e.g., to trace them.
+     * Defaulted to null (i.e., no observer).  The observer is not saved
+     * with the simulator, e.g., in a checkpoint, since it can hold files
+     * (as {@link simulation.eventbased.trace.TraceWriter} does), and is
+     * attached again after the simulator is restored.
+     */
+    public transient EventObserver observer = null;
+    /** Events of batch being run.
+     * @see BatchEventTriggered
+     */
+    private Event[] batch = new Event[8];
+    /** Tick of timer wheel created by simulator.
+     * Defaulted to 10 us, i.e., about the slot time of WiFi.
+     */
+    public double timerTick = 1e-5;
+
     //Methods
+    /** Constructor.
+     * Uses a 4-ary heap as event queue.
+     */
+    public Simulator()
+    {
+	this(new HeapEventQueue());
+    }
+
+    /** Constructor.
+     * @param queue event queue to use
+     * @see HeapEventQueue
+     * @see CalendarEventQueue
+     */
+    public Simulator(EventQueue queue)
+    {
+	this.queue = queue;
+    }
+
     /** Add event to queue.
+     * @param event event to add
+     * @return event as handle for cancellation
+     * @see #cancel(Event event)
      */
-    public void add(Event event)
+    public Event add(Event event)
     {
 	if (event.compareTime(time) == -1)
 	    throw new RuntimeException(event+" NON-CAUSALLY scheduled when simulator time is"+time);
+	if (event.isPending())
+	    throw new RuntimeException(event+" is already scheduled");
+	if (event.queued)
+	    queue.remove(event); //Cancelled event scheduled again, O(log n)
 
+	if (metrics != null) metrics.scheduled(event.time-time);
+	event.queued = true;
+	event.cancelled = false;
 	queue.add(event);
+	link(event);
+	pending++;
+	return event;
+    }
+
+    /** Add event taken from queue or cancelled back to queue, with the 
+     * sequence number it had, so that it is run in its original order 
+     * among events of the same time, e.g., when its run or cancellation
+     * is rolled back.
+     * @param event event taken from queue, or cancelled
+     * @param sequence sequence number of event
+     * @see EventQueue#restore(Event event)
+     */
+    protected void restore(Event event, long sequence)
+    {
+	if (event.isPending())
+	    throw new RuntimeException(event+" is already scheduled");
+	if (event.queued && (event.sequence != sequence))
+	{
+	    //Cancelled and scheduled again, with a new sequence number
+	    queue.remove(event);
+	    event.queued = false;
+	}
+
+	event.cancelled = false;
+	if (!event.queued)
+	{
+	    event.sequence = sequence;
+	    event.queued = true;
+	    queue.restore(event);
+	}
+	link(event);
+	pending++;
+    }
+
+    /** Schedule typed event using an event from the pool of the simulator.
+     * The event is returned to the pool once it is run or discarded, 
+     * so that scheduling does not allocate once the pool has warmed up.
+     * No handle is returned, since the event is reused.  Use 
+     * {@link #cancel(int kind, TypedEventTriggered object)} to cancel it.
+     * @param time time to run event
+     * @param object event triggered object to process event
+     * @param kind kind of event
+     * @param payload payload of event
+     */
+    public void schedule(double time, TypedEventTriggered object, int kind, Object payload)
+    {
+	Event event;
+	if (poolSize == 0)
+	{
+	    event = new Event(time, object, kind, payload);
+	    event.pooled = true;
+	}
+	else
+	{
+	    event = pool[--poolSize];
+	    pool[poolSize] = null;
+	    event.time = time;
+	    event.object = object;
+	    event.kind = kind;
+	    event.payload = payload;
+	}
+	add(event);
+    }
+
+    /** Return pooled event to the pool.
+     * @param event event to recycle
+     */
+    private void recycle(Event event)
+    {
+	event.object = null;
+	event.payload = null;
+	event.cancelled = false;
+	if (poolSize == pool.length)
+	    pool = Arrays.copyOf(pool, 2*poolSize);
+	pool[poolSize++] = event;
     }
 
     /** Run next event.
+     * If the event is for a {@link BatchEventTriggered} object with other
+     * pending events of the same time, these are run as a batch.
+     * @see #runBatch(Event event)
      */
     public void runNextEvent()
     {
-	runEvent((Event) queue.remove(0));
+	if (metrics != null)
+	{
+	    runNextEventMeasured();
+	    return;
+	}
+	Event event = take();
+	if ((event.object instanceof BatchEventTriggered) && runBatch(event))
+	    return;
+	runEvent(event);
+	if (event.pooled && recycling)
+	    recycle(event);
+    }
+
+    /** Run next event, collecting metrics.
+     * @see #metrics
+     */
+    private void runNextEventMeasured()
+    {
+	Event event = take();
+	EventTriggered object = event.object;
+	boolean timed = metrics.count(object, pending);
+	long start = timed? System.nanoTime():0;
+	if (!(object instanceof BatchEventTriggered) || !runBatch(event))
+	{
+	    runEvent(event);
+	    if (event.pooled && recycling)
+		recycle(event);
+	}
+	if (timed)
+	    metrics.timed(object, System.nanoTime()-start);
+    }
+
+    /** Run event with the other pending events of its object of the same
+     * time, as a batch.  The other events are taken by marking them as
+     * cancelled, and so they are discarded from the queue (and recycled)
+     * when they reach its head, right after the batch.
+     * @param event event taken from queue
+     * @return if batch is run; false if there is no other event
+     */
+    protected boolean runBatch(Event event)
+    {
+	int count = 1;
+	batch[0] = event;
+	for (Event current = (Event) objectEvents.get(event.object); current != null;
+	     current = current.nextOfObject)
+	    if (current.time == event.time)
+	    {
+		if (count == batch.length)
+		    batch = Arrays.copyOf(batch, 2*count);
+		batch[count++] = current;
+	    }
+	if (count == 1)
+	{
+	    batch[0] = null;
+	    return false;
+	}
+
+	//Insertion sort in order scheduled, and take events from queue
+	Event current;
+	for (int i = 1; i < count; i++)
+	{
+	    current = batch[i];
+	    tombstone(current);
+	    int j = i;
+	    for (; (j > 0) && (batch[j-1].sequence > current.sequence); j--)
+		batch[j] = batch[j-1];
+	    batch[j] = current;
+	}
+
+	if (debug)
+	    for (int i = 0; i < count; i++)
+		System.out.println(batch[i]+" (batch)");
+	if (observer != null)
+	    for (int i = 0; i < count; i++)
+		observer.eventRun(batch[i], this);
+	time = event.time;
+	try
+	{
+	    ((BatchEventTriggered) event.object).run(time, batch, count, this);
+	}
+	finally
+	{
+	    Arrays.fill(batch, 0, count, null);
+	}
+	if (event.pooled && recycling)
+	    recycle(event);
+	return true;
+    }
+
+    /** Remove next event to run from queue.
+     * @return next event
+     */
+    protected Event take()
+    {
+	Event event = next();
+	if (event == null)
+	    throw new RuntimeException(this+" has no event to run");
+	queue.remove();
+	event.queued = false;
+	unlink(event);
+	pending--;
+	return event;
+    }
+
+    /** Return next event to run, discarding cancelled events at the head of the queue.
+     * @return next event; null if there is none
+     */
+    private Event next()
+    {
+	Event event = queue.peek();
+	while ((event != null) && event.cancelled)
+	{
+	    queue.remove();
+	    event.queued = false;
+	    if (event.pooled && recycling)
+		recycle(event);
+	    event = queue.peek();
+	}
+	return event;
     }
 
-    /** Run specified event. 
+    /** Return time of next event to run.
+     * @return time of next event; positive infinity if there is none
+     */
+    public double nextTime()
+    {
+	Event event = next();
+	return (event == null)? Double.POSITIVE_INFINITY:event.time;
+    }
+
+    /** Indicate if object is simulated by this simulator.
+     * Always true, except for simulators that simulate part of a 
+     * partitioned network.
+     * @param object object to check
+     * @return if events of object are run by this simulator
+     * @see simulation.eventbased.parallel.RegionSimulator
+     */
+    public boolean isLocal(EventTriggered object)
+    {
+	return true;
+    }
+
+    /** Run specified event.
      * @param event event definition
      * @see EventTriggered#run(double time, String event, Simulator simulator)
+     * @see TypedEventTriggered#run(double time, int kind, Object payload, Simulator simulator)
      */
-    private void runEvent(Event event)
+    protected void runEvent(Event event)
     {
 	if (debug) System.out.println(event);
+	if (observer != null) observer.eventRun(event, this);
 	time = event.time;
-	event.object.run(event.time, event.event, this);
+	if (event.kind == Event.untyped)
+	    event.object.run(event.time, event.event, this);
+	else
+	    ((TypedEventTriggered) event.object).run(event.time, event.kind,
+						     event.payload, this);
+    }
+
+    /** Link event to the pending events of its object.
+     * @param event event to link
+     */
+    private void link(Event event)
+    {
+	Event first = (Event) objectEvents.put(event.object, event);
+	event.prevOfObject = null;
+	event.nextOfObject = first;
+	if (first != null)
+	    first.prevOfObject = event;
+    }
+
+    /** Unlink event from the pending events of its object.
+     * @param event event to unlink
+     */
+    private void unlink(Event event)
+    {
+	if (event.prevOfObject != null)
+	    event.prevOfObject.nextOfObject = event.nextOfObject;
+	else if (event.nextOfObject != null)
+	    objectEvents.put(event.object, event.nextOfObject);
+	else
+	    objectEvents.remove(event.object);
+
+	if (event.nextOfObject != null)
+	    event.nextOfObject.prevOfObject = event.prevOfObject;
+	event.prevOfObject = null;
+	event.nextOfObject = null;
+    }
+
+    /** Mark pending event as cancelled.
+     * @param event event to cancel
+     */
+    protected void tombstone(Event event)
+    {
+	event.cancelled = true;
+	unlink(event);
+	pending--;
     }
 
     /** Cancel first event found with the same string reference and object associated.
      * This means that it is the next event of the same string reference and object
-     * associated to be run from the queue.
+     * associated to be run from the queue.  Only pending events of the object
+     * are searched.
      * @param event event string reference
      * @param object object associated
      * @return returns if event is cancelled
      */
     public boolean cancel(String event, EventTriggered object)
     {
-	for (int i = 0; i < queue.size(); i++)
-	    if ((((Event) queue.get(i)).event == event) &&
-		(((Event) queue.get(i)).object == object))
-	    {
-		queue.remove(i);
-		return true;
-	    }
-	return false;
+	Event first = null;
+	for (Event current = (Event) objectEvents.get(object); current != null;
+	     current = current.nextOfObject)
+	    if ((current.event == event) &&
+		((first == null) || current.precedes(first)))
+		first = current;
+
+	if (first == null)
+	    return false;
+	tombstone(first);
+	return true;
+    }
+
+    /** Cancel first typed event found with the same kind and object associated.
+     * This means that it is the next event of the same kind and object
+     * associated to be run from the queue.  Only pending events of the object
+     * are searched.
+     * @param kind kind of event
+     * @param object object associated
+     * @return returns if event is cancelled
+     */
+    public boolean cancel(int kind, TypedEventTriggered object)
+    {
+	Event first = null;
+	for (Event current = (Event) objectEvents.get(object); current != null;
+	     current = current.nextOfObject)
+	    if ((current.kind == kind) &&
+		((first == null) || current.precedes(first)))
+		first = current;
+
+	if (first == null)
+	    return false;
+	tombstone(first);
+	return true;
     }
 
     /** Return vector of events lined up for an object.
+     * Events are sorted in order they are to be run.
+     * Only pending events of the object are searched.
      * @param object object events to be associated with
      * @return vector of events associated with object
      */
     public Vector eventLinedUp(EventTriggered object)
     {
 	Vector interestEvents = new Vector();
-	for (int i = 0; i < queue.size(); i++)
-	    if (((Event) queue.get(i)).object == object)
-		interestEvents.add(queue.get(i));
-	    
+	for (Event current = (Event) objectEvents.get(object); current != null;
+	     current = current.nextOfObject)
+	    interestEvents.add(current);
+	Collections.sort(interestEvents);
+
 	return interestEvents;
     }
 
-    /** Cancel first event found with the same string reference and object associated.
-     * This means that it is the next event of the same string reference and object
-     * associated to be run from the queue.  Time of the event is ignored.
+    /** Cancel event.
+     * If the event is a handle returned by {@link #add(Event event)}
+     * that is still pending, the event is cancelled in constant time.
+     * Else, the first event found with the same string reference (or kind
+     * for typed events) and object associated is cancelled.  This means 
+     * that it is the next such event to be run from the queue.  
+     * Time of the event is ignored.
      * @param event event reference
      * @return returns if event is cancelled
      */
     public boolean cancel(Event event)
     {
+	if (event.isPending())
+	{
+	    tombstone(event);
+	    return true;
+	}
+	if (event.kind != Event.untyped)
+	    return cancel(event.kind, (TypedEventTriggered) event.object);
 	return cancel(event.event, event.object);
     }
 
     /** Cancel first event found with the same string reference.
      * This means that it is the next event of the same string reference to be
-     * run from the queue.
+     * run from the queue.  This requires a scan of the whole queue.
      * @param event event string reference
      * @return returns if event is cancelled
      */
     public boolean cancel(String event)
     {
-	for (int i = 0; i < queue.size(); i++)
-	    if (((Event) queue.get(i)).event == event)
-	    {
-		queue.remove(i);
-		return true;
-	    }
-	return false;
+	Event first = null;
+	Event current;
+	for (Iterator i = queue.iterator(); i.hasNext(); )
+	{
+	    current = (Event) i.next();
+	    if ((current.event == event) && !current.cancelled &&
+		((first == null) || current.precedes(first)))
+		first = current;
+	}
+
+	if (first == null)
+	    return false;
+	tombstone(first);
+	return true;
+    }
+
+    /** Arm timer to fire at time specified, in the timer wheel.
+     * An armed timer is re-armed.  Unlike scheduling an event, neither
+     * arming nor disarming a timer allocates or touches the event queue,
+     * except when the timer is to fire before every other timer.
+     * @param timer timer to arm
+     * @param time time to fire timer at
+     * @see TimerWheel
+     */
+    public void arm(EventTimer timer, double time)
+    {
+	if (timers == null)
+	    timers = new TimerWheel(this, timerTick);
+	timers.arm(timer, time);
+    }
+
+    /** Disarm timer.
+     * @param timer timer to disarm
+     * @return if timer was armed
+     */
+    public boolean disarm(EventTimer timer)
+    {
+	return (timers != null) && timers.disarm(timer);
+    }
+
+    /** Return number of pending events, excluding those cancelled.
+     * @return number of events to be run
+     */
+    public int size()
+    {
+	return pending;
+    }
+
+    /** Set current time, e.g., when rolling back simulation.
+     * @param time time to set to
+     */
+    protected void setTime(double time)
+    {
+	this.time = time;
     }
 
     /** Return current time.
@@ -0,0 +1,19 @@
+package simulation.eventbased;
+
+/** Interface for object whose state can be saved and restored,
+ * e.g., to roll back optimistic simulation.
+ * @author ykk
+ */
+public interface Stateful
+{
+    /** Save state of object.
+     * The state returned must not be changed by later changes in object.
+     * @return state of object
+     */
+    public Object saveState();
+
+    /** Restore state of object.
+     * @param state state returned by {@link #saveState()}
+     */
+    public void restoreState(Object state);
+}
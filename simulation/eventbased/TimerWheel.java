@@ -0,0 +1,371 @@
+package simulation.eventbased;
+
+import java.util.*;
+
+/** Hierarchical timer wheel, next to the event queue of a simulator.
+ * Timers are kept in slots of a tick each at the lowest level, and of 
+ * 64 times the width of the level below at each higher level.  Timers
+ * too far ahead for the wheel are kept in an overflow list.  Arming and
+ * disarming a timer are thus constant time, and timers are moved to 
+ * lower levels as the wheel turns.  Occupied slots of each level are 
+ * tracked by bitmaps, so that the next timer is found without scanning
+ * empty slots.
+ * <BR>
+ * The wheel is represented in the event queue by a single event at the
+ * time of its earliest timer.  The event fires all timers of that exact 
+ * time as a batch, in the order they are armed, and is moved only when 
+ * a timer earlier than it is armed.  Disarming a timer never touches
+ * the event queue.  Times of timers are not rounded to ticks, and so the 
+ * tick only affects performance.  It is best set to the typical period 
+ * of timers, e.g., the slot time of WiFi.
+ * @see EventTimer
+ * @see Simulator#arm(EventTimer timer, double time)
+ * @author ykk
+ */
+public class TimerWheel
+    implements TypedEventTriggered, java.io.Serializable
+{
+    //Members
+    /** Width of slot at lowest level (in time unit).
+     */
+    public final double tick;
+    /** Number of levels of wheel.
+     */
+    public static final int levels = 4;
+    /** Bits of slot index at each level, i.e., 64 slots per level.
+     */
+    private static final int bits = 6;
+    /** Mask of slot index at each level.
+     */
+    private static final int mask = (1 << bits)-1;
+    /** Level of timers beyond the wheel.
+     */
+    static final int overflow = levels;
+    /** Level of timers in the batch being fired.
+     */
+    static final int firing = -1;
+    /** Level of timers not in wheel.
+     */
+    static final int none = -2;
+    /** Kind of event for timers due.
+     */
+    public static final int eventTimersDue = 0;
+    /** Simulator the wheel belongs to.
+     */
+    private Simulator simulator;
+    /** First timer in each slot of each level.
+     */
+    private EventTimer[][] slots = new EventTimer[levels][1 << bits];
+    /** Bitmap of occupied slots of each level.
+     */
+    private long[] occupied = new long[levels];
+    /** First timer beyond the wheel.
+     */
+    private EventTimer overflowTimers = null;
+    /** Current tick of wheel.
+     * Timers armed are never earlier than the current tick.
+     */
+    private long now = 0;
+    /** Number of timers armed.
+     */
+    private int size = 0;
+    /** Sequence to assign to the next timer armed.
+     */
+    private long nextSequence = 0;
+    /** Time of event for timers due in event queue.
+     * Positive infinity if there is none.
+     */
+    private double scheduled = Double.POSITIVE_INFINITY;
+    /** Batch of timers being fired.
+     */
+    private EventTimer[] batch = new EventTimer[16];
+    /** Indicate if batch of timers is being fired.
+     */
+    private boolean inBatch = false;
+
+    //Methods
+    /** Constructor.
+     * @param simulator simulator the wheel belongs to
+     * @param tick width of slot at lowest level
+     */
+    public TimerWheel(Simulator simulator, double tick)
+    {
+	if (tick <= 0)
+	    throw new RuntimeException(this+" requires positive tick and not "+tick);
+	this.simulator = simulator;
+	this.tick = tick;
+	now = tickOf(simulator.time());
+    }
+
+    /** Arm timer to fire at time specified.
+     * An armed timer is re-armed.
+     * @param timer timer to arm
+     * @param time time to fire at
+     */
+    public void arm(EventTimer timer, double time)
+    {
+	if (time < simulator.time())
+	    throw new RuntimeException(timer+" NON-CAUSALLY armed for "+time+
+				       " when simulator time is "+simulator.time());
+	if (timer.armed)
+	    remove(timer);
+	timer.time = time;
+	timer.sequence = nextSequence++;
+	timer.armed = true;
+	insert(timer);
+	size++;
+
+	if (!inBatch && (time < scheduled))
+	    scheduleDue(time);
+    }
+
+    /** Disarm timer.
+     * @param timer timer to disarm
+     * @return if timer was armed
+     */
+    public boolean disarm(EventTimer timer)
+    {
+	if (!timer.armed)
+	    return false;
+	remove(timer);
+	timer.armed = false;
+	size--;
+	return true;
+    }
+
+    /** Return number of timers armed.
+     * @return number of timers
+     */
+    public int size()
+    {
+	return size;
+    }
+
+    /** Return tick of time.
+     * @param time time
+     * @return tick time is in
+     */
+    private long tickOf(double time)
+    {
+	return (long) Math.floor(time/tick);
+    }
+
+    /** Insert timer in the slot of its tick, relative to current tick.
+     * @param timer timer to insert
+     */
+    private void insert(EventTimer timer)
+    {
+	long timerTick = Math.max(tickOf(timer.time), now);
+	int level = 0;
+	while ((level < levels) && 
+	       ((timerTick >>> (bits*(level+1))) != (now >>> (bits*(level+1)))))
+	    level++;
+
+	timer.level = level;
+	timer.prev = null;
+	if (level == overflow)
+	{
+	    timer.next = overflowTimers;
+	    if (overflowTimers != null)
+		overflowTimers.prev = timer;
+	    overflowTimers = timer;
+	    return;
+	}
+
+	timer.slot = (int) ((timerTick >>> (bits*level)) & mask);
+	timer.next = slots[level][timer.slot];
+	if (timer.next != null)
+	    timer.next.prev = timer;
+	slots[level][timer.slot] = timer;
+	occupied[level] |= 1L << timer.slot;
+    }
+
+    /** Remove timer from its slot (or from batch being fired).
+     * @param timer timer to remove
+     */
+    private void remove(EventTimer timer)
+    {
+	if (timer.level == firing)
+	{
+	    timer.level = none; //Skipped when batch is fired
+	    return;
+	}
+
+	if (timer.prev != null)
+	    timer.prev.next = timer.next;
+	else if (timer.level == overflow)
+	    overflowTimers = timer.next;
+	else
+	{
+	    slots[timer.level][timer.slot] = timer.next;
+	    if (timer.next == null)
+		occupied[timer.level] &= ~(1L << timer.slot);
+	}
+	if (timer.next != null)
+	    timer.next.prev = timer.prev;
+	timer.prev = null;
+	timer.next = null;
+    }
+
+    /** Turn wheel to tick specified, moving timers of slots reached
+     * at higher levels to lower levels.
+     * No timer must be earlier than the tick.
+     * @param to tick to turn to
+     */
+    private void turn(long to)
+    {
+	if (to <= now)
+	    return;
+	long from = now;
+	now = to;
+
+	EventTimer timer;
+	if ((from >>> (bits*levels)) != (to >>> (bits*levels)))
+	{
+	    timer = overflowTimers;
+	    overflowTimers = null;
+	    reinsert(timer);
+	}
+	for (int level = levels-1; level > 0; level--)
+	    if ((from >>> (bits*level)) != (to >>> (bits*level)))
+	    {
+		int slot = (int) ((to >>> (bits*level)) & mask);
+		timer = slots[level][slot];
+		slots[level][slot] = null;
+		occupied[level] &= ~(1L << slot);
+		reinsert(timer);
+	    }
+    }
+
+    /** Insert list of timers again, relative to current tick.
+     * @param timer first timer of list
+     */
+    private void reinsert(EventTimer timer)
+    {
+	EventTimer next;
+	while (timer != null)
+	{
+	    next = timer.next;
+	    insert(timer);
+	    timer = next;
+	}
+    }
+
+    /** Return time of earliest timer.
+     * @return time of earliest timer; positive infinity if there is none
+     */
+    public double nextTime()
+    {
+	EventTimer timer = null;
+	for (int level = 0; (level < levels) && (timer == null); level++)
+	{
+	    //Slots of current tick onwards at lowest level, and after it at others
+	    int current = (int) ((now >>> (bits*level)) & mask);
+	    long after = occupied[level] & 
+		((level == 0)? (-1L << current):((current == mask)? 0:(-1L << (current+1))));
+	    if (after != 0)
+		timer = slots[level][Long.numberOfTrailingZeros(after)];
+	}
+	if (timer == null)
+	    timer = overflowTimers;
+
+	double time = Double.POSITIVE_INFINITY;
+	for (; timer != null; timer = timer.next)
+	    if (timer.time < time)
+		time = timer.time;
+	return time;
+    }
+
+    /** Fire timers due, as a batch, and schedule event for the next.
+     * @param time current time
+     * @param kind kind of event (i.e., {@link #eventTimersDue})
+     * @param payload payload of event (unused)
+     * @param simulator reference to simulator
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	scheduled = Double.POSITIVE_INFINITY;
+	turn(tickOf(time));
+
+	//Collect timers of time from slot of current tick
+	int count = 0;
+	int slot = (int) (now & mask);
+	EventTimer timer = slots[0][slot];
+	EventTimer next;
+	while (timer != null)
+	{
+	    next = timer.next;
+	    if (timer.time == time)
+	    {
+		remove(timer);
+		timer.level = firing;
+		if (count == batch.length)
+		    batch = Arrays.copyOf(batch, 2*count);
+		batch[count++] = timer;
+	    }
+	    timer = next;
+	}
+	//Insertion sort by order armed, as batches are small
+	for (int i = 1; i < count; i++)
+	{
+	    timer = batch[i];
+	    int j = i;
+	    for (; (j > 0) && (batch[j-1].sequence > timer.sequence); j--)
+		batch[j] = batch[j-1];
+	    batch[j] = timer;
+	}
+
+	//Fire timers still in batch
+	inBatch = true;
+	try
+	{
+	    for (int i = 0; i < count; i++)
+	    {
+		timer = batch[i];
+		batch[i] = null;
+		if (timer.level != firing)
+		    continue;
+		timer.armed = false;
+		timer.level = none;
+		size--;
+		if (simulator.observer != null)
+		    simulator.observer.timerFired(timer, time, simulator);
+		timer.object.run(time, timer.kind, null, simulator);
+	    }
+	}
+	finally
+	{
+	    inBatch = false;
+	}
+
+	double nextTime = nextTime();
+	if (nextTime != Double.POSITIVE_INFINITY)
+	    scheduleDue(nextTime);
+    }
+
+    /** Event triggered interface.
+     * @param time current time
+     * @param event event string definition
+     * @param simulator reference to simulator
+     */
+    public void run(double time, String event, Simulator simulator)
+    {
+	run(time, eventTimersDue, null, simulator);
+    }
+
+    /** Schedule event for timers due, moving the one in queue if any.
+     * @param time time of timers due
+     */
+    private void scheduleDue(double time)
+    {
+	if (scheduled != Double.POSITIVE_INFINITY)
+	    simulator.cancel(eventTimersDue, this);
+	simulator.schedule(time, this, eventTimersDue, null);
+	scheduled = time;
+    }
+
+    public String toString()
+    {
+	return "TimerWheel with "+size+" timers at tick "+now;
+    }
+}
@@ -0,0 +1,24 @@
+package simulation.eventbased;
+
+import simulation.eventbased.*;
+
+/** Interface for event triggered object that processes typed events.
+ * Typed events are identified by an integer kind, which allows the 
+ * object to dispatch them with a switch instead of searching for a 
+ * string reference.  Each event can also carry a payload, e.g., the 
+ * packet it concerns.
+ * @see Event#kind
+ * @see Event#payload
+ * @author ykk
+ */
+public interface TypedEventTriggered
+    extends EventTriggered
+{
+    /** Function to run typed events.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event (can be null)
+     * @param simulator reference to simulator
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator);
+}
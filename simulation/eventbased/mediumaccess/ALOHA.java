@@ -18,6 +18,7 @@ import simulation.distributions.*;
  */
 public class ALOHA
     extends MACNode
+    implements Stateful, BatchEventTriggered
 {
     //Members
     /** Current state of node.
@@ -51,6 +52,23 @@ public class ALOHA
     public static final String[] events = {"Receive Ended", 
 					   "Transmission Ended", 
 					   "Wait Ended"};
+    /** Kind of typed event for "Receive Ended".
+     * Payload is the {@link Reception} ended.
+     */
+    public static final int eventReceiveEnded = 0;
+    /** Kind of typed event for "Transmission Ended".
+     */
+    public static final int eventTransmissionEnded = 1;
+    /** Kind of typed event for "Wait Ended".
+     */
+    public static final int eventWaitEnded = 2;
+    /** Kind of typed event for "Packet Arrived".
+     * Scheduled at a neighbor that is simulated by another simulator
+     * in place of transmitting to it directly.  Payload is the 
+     * {@link Reception}.
+     * @see Simulator#isLocal(EventTriggered object)
+     */
+    public static final int eventPacketArrived = 4;
     /** Number of ongoing receptions.
      */
     protected int onGoing = 0;
@@ -60,48 +78,140 @@ public class ALOHA
     /** Distribution of random wait.
      */
     public Distribution waitTime;
-    /** Currently receiving packet.
+    /** Spare receptions for reuse.
      */
-    protected Object packet;
-    /** Currently receiving from.
-     */
-    protected CommNode currSource;
+    private Reception spareReceptions = null;
 
     //Methods
     /** Event triggered interface.
+     * Maps string reference of event to its kind.
+     * @param time current time
+     * @param event event string definition
+     * @param simulator reference to simulator
+     * @see #events
+     * @see #run(double time, int kind, Object payload, Simulator simulator)
+     */
+    public void run(double time, String event, Simulator simulator)
+    {
+	runUntyped(time, Array.indexOf(events, event), event, simulator);
+    }
+
+    /** Run event given by string reference, as typed event without 
+     * payload.
+     * Events that carry a payload, e.g., "Receive Ended" with its 
+     * {@link Reception}, can only be run as typed events.
+     * @param time current time
+     * @param kind kind of event
+     * @param event event string definition
+     * @param simulator reference to simulator
+     * @see #hasPayload(int kind)
+     */
+    protected void runUntyped(double time, int kind, String event, Simulator simulator)
+    {
+	if (hasPayload(kind))
+	    throw new RuntimeException(this+" cannot run \""+event+
+				       "\" without its payload; schedule it as typed event "+
+				       kind+" instead");
+	run(time, kind, null, simulator);
+    }
+
+    /** Indicate if events of a kind carry a payload.
+     * @param kind kind of event
+     * @return if events of kind carry a payload
+     */
+    protected boolean hasPayload(int kind)
+    {
+	return (kind == eventReceiveEnded) || (kind == eventPacketArrived);
+    }
+
+    /** Typed event triggered interface.
      * State diagram is as shown below.
      * <BR><img src="doc-files/aloha.jpg"><BR>
+     * A packet is delivered only when its reception ends without having 
+     * collided with another transmission or reception.
      * @param time current time
-     * @param event event string definition
+     * @param kind kind of event
+     * @param payload payload of event
      * @param simulator reference to simulator
      * @see #events
      * @see #state
      * @see #receive(CommNode source, Object packet, Simulator simulator)
      * @see #trigger(Simulator simulator)
      */
-    public void run(double time, String event, Simulator simulator)
+    public void run(double time, int kind, Object payload, Simulator simulator)
     {
-	switch (Array.indexOf(events, event))
+	switch (kind)
 	{
-	case 0: //Receive Ended
+	case eventReceiveEnded:
 	    onGoing--;
+	    boolean received = (onGoing == 0) && (state != stateCollided);
 	    scheduleWait(simulator);
-	    if ((onGoing == 0) && (state != stateCollided))
-		processor.receive(currSource,this,packet,queue);
+	    if (received)
+		processor.receive(((Reception) payload).source, this,
+				  ((Reception) payload).packet, queue);
+	    if (simulator.recycling)
+		releaseReception((Reception) payload);
 	    break;
-	case 1: //Transmission Ended
+	case eventTransmissionEnded:
 	    isTransmitting = false;
 	    scheduleWait(simulator);
 	    break;
-	case 2: //Wait Ended
+	case eventWaitEnded:
 	    if (processor.hasPkt(queue))
 		startTransmission(simulator);
 	    else
 		state = stateIdle;
 	    break;
+	case eventPacketArrived:
+	    commChannel.transmit((ALOHA) ((Reception) payload).source, this,
+				 ((Reception) payload).packet, simulator);
+	    break;
 	default:
-	    throw new RuntimeException(this+" encounters unknown event "+event);
+	    throw new RuntimeException(this+" encounters unknown event kind "+kind);
+	}
+    }
+
+    /** Run batch of simultaneous events.
+     * Receptions ending at the same time are processed together, after
+     * the other events of the batch.  They have overlapped, and so none
+     * of them is delivered.
+     * @param time current time
+     * @param events events to run
+     * @param count number of events in batch
+     * @param simulator reference to simulator
+     * @see #run(double time, int kind, Object payload, Simulator simulator)
+     */
+    public void run(double time, Event[] events, int count, Simulator simulator)
+    {
+	int ended = 0;
+	Event event;
+	for (int i = 0; i < count; i++)
+	{
+	    event = events[i];
+	    if (event.kind == eventReceiveEnded)
+		ended++;
+	    else if (event.kind == Event.untyped)
+		run(time, event.event, simulator);
+	    else
+		run(time, event.kind, event.payload, simulator);
 	}
+	if (ended == 0)
+	    return;
+	if (ended == 1)
+	{
+	    for (int i = 0; i < count; i++)
+		if (events[i].kind == eventReceiveEnded)
+		    run(time, eventReceiveEnded, events[i].payload, simulator);
+	    return;
+	}
+
+	onGoing -= ended;
+	state = stateCollided;
+	scheduleWait(simulator);
+	if (simulator.recycling)
+	    for (int i = 0; i < count; i++)
+		if (events[i].kind == eventReceiveEnded)
+		    releaseReception((Reception) events[i].payload);
     }
 
     /** Schedule wait time.
@@ -112,9 +222,8 @@ public class ALOHA
 	if (!isTransmitting & (onGoing == 0))
 	{
 	    state = stateWaiting;
-	    simulator.add(new Event(simulator.time()+waitTime.getInstance(),
-				    this,
-				    this.events[2])); //Wait Ended Scheduled
+	    simulator.schedule(simulator.time()+waitTime.getInstance(),
+			       this, eventWaitEnded, null);
 	}
     }
 
@@ -130,15 +239,20 @@ public class ALOHA
 
 	Packet packet = (Packet) processor.get(queue);
 	isTransmitting = true;
-	simulator.add(new Event(simulator.time()+
-				commChannel.transmitDuration(packet),
-				this,
-				this.events[1])); //Transmission Ended scheduled
+	simulator.schedule(simulator.time()+
+			   commChannel.transmitDuration(packet),
+			   this, eventTransmissionEnded, null);
 
-	//Set neighbors' receive
+	//Set neighbors' receive, or send packet to those simulated elsewhere
 	for (int i = 0; i < transmitPartners.size(); i++)
-	    commChannel.transmit(this, (ALOHA) transmitPartners.get(i),
-				 packet,simulator);
+	    if (simulator.isLocal((ALOHA) transmitPartners.get(i)))
+		commChannel.transmit(this, (ALOHA) transmitPartners.get(i),
+				     packet,simulator);
+	    else
+		simulator.schedule(simulator.time(),
+				   (ALOHA) transmitPartners.get(i), 
+				   eventPacketArrived, 
+				   new Reception(this, packet));
     }
 
     /** Receive packets.
@@ -154,12 +268,39 @@ public class ALOHA
 	else
 	    state = stateReceiving;
 	onGoing++;
-	simulator.add(new Event(simulator.time()+
-				commChannel.transmitDuration((Packet) packet),
-				this,
-				this.events[0])); //Receive Ended scheduled
-	this.packet = packet;
-	this.currSource = source;
+	simulator.schedule(simulator.time()+
+			   commChannel.transmitDuration((Packet) packet),
+			   this, eventReceiveEnded, 
+			   newReception(source, packet));
+    }
+
+    /** Get reception, reusing a spare one if available.
+     * @param source node packet is received from
+     * @param packet packet received
+     * @return reception
+     */
+    private Reception newReception(CommNode source, Object packet)
+    {
+	Reception reception = spareReceptions;
+	if (reception == null)
+	    return new Reception(source, packet);
+
+	spareReceptions = reception.next;
+	reception.next = null;
+	reception.source = source;
+	reception.packet = packet;
+	return reception;
+    }
+
+    /** Return reception for reuse.
+     * @param reception reception ended
+     */
+    private void releaseReception(Reception reception)
+    {
+	reception.source = null;
+	reception.packet = null;
+	reception.next = spareReceptions;
+	spareReceptions = reception;
     }
 
     public void trigger(Simulator simulator)
@@ -171,10 +312,37 @@ public class ALOHA
 	}
     }
 
+    /** Save state of node, including content of its queue and positions
+     * of random streams of its wait and receptions.
+     * @return state of node
+     */
+    public Object saveState()
+    {
+	return new Object[] {new int[] {state, onGoing, isTransmitting? 1:0},
+			     queue.saveState(), waitTime.saveState(),
+			     receiveStream.saveState()};
+    }
+
+    /** Restore state of node, including content of its queue and positions
+     * of random streams of its wait and receptions.
+     * @param state state returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	int[] values = (int[]) ((Object[]) state)[0];
+	this.state = values[0];
+	onGoing = values[1];
+	isTransmitting = (values[2] == 1);
+	queue.restoreState(((Object[]) state)[1]);
+	waitTime.restoreState(((Object[]) state)[2]);
+	receiveStream.restoreState(((Object[]) state)[3]);
+    }
+
     public Node newNode(Coordinate coordinate)
     {
 	return new ALOHA(coordinate, this.channel, this.commChannel, 
-			 this.queue.newQueue(), this.processor, this.waitTime);
+			 this.queue.newQueue(), this.processor, 
+			 this.waitTime.split());
     }
 
     /** Constructor.
@@ -209,8 +377,7 @@ public class ALOHA
 	for (int i = 0; i < trial.network.nodes.size(); i++)
 	    trial.simulator.add(new Event(trial.waitTime.getInstance(),
 					  ((ALOHA) trial.network.nodes.get(i)),
-					  ((ALOHA) trial.network.nodes.get(i)).
-					  events[2]));
+					  eventWaitEnded, null));
 	trial.run();
     }
 }
@@ -27,42 +27,70 @@ public class CSMA
      *          1 "Transmission Ended", 
      *          2 "Wait Ended"
      *          3 "Packet Reaches Destinations"
+     *          4 "Packet Arrived"
      */
     public static final String[] events = {"Receive Ended", 
 					   "Transmission Ended", 
 					   "Wait Ended", 
-					   "Packet Reached"};
+					   "Packet Reached",
+					   "Packet Arrived"};
+    /** Kind of typed event for "Packet Reached".
+     * Payload is the packet transmitted.
+     */
+    public static final int eventPacketReached = 3;
     /** Propagation delay.
      * Defaults to 1 us, equivalent to propagation of around 300 m.
      */
     public double propagation = 1e-6;
-    /** Currently transmitting packet;
-     */
-    protected Packet txPacket;
 
     //Methods
     /** Event triggered interface.
-     * Added propagation delay, else CSMA is perfect.
+     * Maps string reference of event to its kind.
      * @param time current time
      * @param event event string definition
      * @param simulator reference to simulator
      * @see #events
+     * @see #run(double time, int kind, Object payload, Simulator simulator)
+     */
+    public void run(double time, String event, Simulator simulator)
+    {
+	runUntyped(time, Array.indexOf(events, event), event, simulator);
+    }
+
+    /** Indicate if events of a kind carry a payload.
+     * @param kind kind of event
+     * @return if events of kind carry a payload
+     */
+    protected boolean hasPayload(int kind)
+    {
+	return (kind == eventPacketReached) || super.hasPayload(kind);
+    }
+
+    /** Typed event triggered interface.
+     * Added propagation delay, else CSMA is perfect.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event
+     * @param simulator reference to simulator
+     * @see #events
      * @see #state
      * @see #receive(CommNode source, Object packet, Simulator simulator)
      * @see #trigger(Simulator simulator)
      */
-    public void run(double time, String event, Simulator simulator)
+    public void run(double time, int kind, Object payload, Simulator simulator)
     {
-	//Packet reaches destination
-	if (Array.indexOf(events, event) == 3)
+	switch (kind)
 	{
+	case eventPacketReached:
 	    //Set neighbors' receive
 	    for (int i = 0; i < transmitPartners.size(); i++)
-		commChannel.transmit(this, (ALOHA) transmitPartners.get(i),
-				     txPacket,simulator);
+		if (simulator.isLocal((ALOHA) transmitPartners.get(i)))
+		    commChannel.transmit(this, (ALOHA) transmitPartners.get(i),
+					 payload, simulator);
+	    break;
+	default:
+	    super.run(time, kind, payload, simulator);
 	}
-	else
-	    super.run(time, event, simulator);
     }
 
     /** Constructor.
@@ -96,21 +124,25 @@ public class CSMA
 	Packet packet = (Packet) processor.get(queue);
 	state = stateTransmitting;
 	isTransmitting = true;
-	simulator.add(new Event(simulator.time()+
-				commChannel.transmitDuration(packet),
-				this,
-				this.events[1]));//Transmission Ended scheduled
-	txPacket = packet;
-	simulator.add(new Event(simulator.time()+propagation,
-				this,
-				this.events[3])); //Packet Reaches Destination scheduled
+	simulator.schedule(simulator.time()+
+			   commChannel.transmitDuration(packet),
+			   this, eventTransmissionEnded, null);
+	simulator.schedule(simulator.time()+propagation,
+			   this, eventPacketReached, packet);
+	//Neighbors simulated elsewhere get the packet as an event
+	for (int i = 0; i < transmitPartners.size(); i++)
+	    if (!simulator.isLocal((ALOHA) transmitPartners.get(i)))
+		simulator.schedule(simulator.time()+propagation,
+				   (ALOHA) transmitPartners.get(i), 
+				   eventPacketArrived, 
+				   new Reception(this, packet));
     }
 
     public Node newNode(Coordinate coordinate)
     {
 	return new CSMA(coordinate, this.channel, this.commChannel, 
 			this.queue.newQueue(), this.processor, 
-			this.waitTime, propagation);
+			this.waitTime.split(), propagation);
     }
 
     /** Trial run of MAC simulation.
@@ -130,8 +162,7 @@ public class CSMA
 	for (int i = 0; i < trial.network.nodes.size(); i++)
 	    trial.simulator.add(new Event(trial.waitTime.getInstance(),
 					  ((CSMA) trial.network.nodes.get(i)),
-					  ((CSMA) trial.network.nodes.get(i)).
-					  events[2]));
+					  eventWaitEnded, null));
 	trial.run();
     }
 }
\ No newline at end of file
@@ -14,7 +14,7 @@ import simulation.utilities.packetprocessors.*;
  */
 public abstract class MACNode
     extends simulation.networks.simulator.MACNode
-    implements EventTriggered
+    implements TypedEventTriggered
 {
     /** Function to trigger node in idle mode.
      */
@@ -22,6 +22,8 @@ public abstract class MACNode
 
     public abstract void run(double time, String event, Simulator simulator);
 
+    public abstract void run(double time, int kind, Object payload, Simulator simulator);
+
     /** Receive packet from a node.
      * @param source source node of packet
      * @param packet packet delivered
@@ -30,12 +32,16 @@ public abstract class MACNode
     public abstract void receive(CommNode source, Object packet, simulation.eventbased.Simulator simulator);
 
     /** Receive packet from a node.
+     * Node must be simulated by the simulator specified.
      * @param source source node of packet
      * @param packet packet delivered
      * @param simulator reference to simulator
+     * @see Simulator#isLocal(EventTriggered object)
      */
     public void receive(CommNode source, Object packet, simulation.networks.simulator.Simulator simulator)
     {
+	if (!((simulation.eventbased.Simulator) simulator).isLocal(this))
+	    throw new RuntimeException(this+" receives directly from "+source+" simulated elsewhere, without lookahead");
 	receive(source, packet, (simulation.eventbased.Simulator) simulator);
     }
 
@@ -0,0 +1,189 @@
+package simulation.eventbased.mediumaccess;
+
+import java.util.*;
+import java.util.concurrent.*;
+import simulation.networks.*;
+import simulation.networks.nodes.*;
+import simulation.networks.pointprocesses.*;
+import simulation.results.*;
+import simulation.distributions.*;
+import simulation.eventbased.*;
+
+/** Class to run independent replications of a MAC trial in parallel.
+ * Each replication is a separate {@link MACTrial}, with its own network,
+ * simulator and packet processor, built by {@link #newTrial(int, long)}
+ * and run on a fork-join pool.  Each replication is given a seed of
+ * its own, split from {@link #seed}, for the random streams of its 
+ * components, so that replications are independent and each can be
+ * replayed from its seed.  Results of replications are merged in order of 
+ * replication, so that they do not depend on the order replications
+ * complete in.
+ * <BR>
+ * Throughput and mean delay of each replication are taken as
+ * independent samples, for confidence intervals of the mean.
+ * @see MACTrial
+ * @see RandomStreams
+ * @author ykk
+ */
+public abstract class MACReplications
+{
+    //Members
+    /** Number of replications.
+     * Defaulted to 30.
+     */
+    public int replications = 30;
+    /** Number of threads to run replications.
+     * Defaulted to the number of processors available.
+     */
+    public int threads = Runtime.getRuntime().availableProcessors();
+    /** Seed to split seeds of replications from.
+     * Defaulted to 1.
+     */
+    public long seed = 1;
+    /** Confidence level of intervals reported.
+     * Defaulted to 0.95.
+     */
+    public double confidence = 0.95;
+    /** Throughput of replications, one sample per replication.
+     */
+    public ResultVar throughput = new ResultVar();
+    /** Mean delay of replications, one sample per replication.
+     */
+    public ResultVar delay = new ResultVar();
+    /** Delay of all packets received in all replications.
+     */
+    public ResultVar pooledDelay = new ResultVar();
+
+    //Methods
+    /** Build trial for a replication, with network generated and 
+     * initial events scheduled.
+     * Trials must not share components that keep state.
+     * @param replication index of replication
+     * @param seed seed of replication
+     * @return trial to run
+     */
+    protected abstract MACTrial newTrial(int replication, long seed);
+
+    /** Run replications and merge their results.
+     * Results of replications previously run are kept.
+     */
+    public void run()
+    {
+	SplittableRandom seeds = new SplittableRandom(seed);
+	Vector tasks = new Vector();
+	for (int i = 0; i < replications; i++)
+	    tasks.add(new Replication(i, seeds.split().nextLong()));
+
+	ForkJoinPool pool = new ForkJoinPool(threads);
+	try
+	{
+	    List futures = pool.invokeAll(tasks);
+	    for (int i = 0; i < futures.size(); i++)
+		merge((MACTrial) ((Future) futures.get(i)).get());
+	}
+	catch (InterruptedException e)
+	{
+	    throw new RuntimeException(this+" interrupted while running replications: "+e);
+	}
+	catch (ExecutionException e)
+	{
+	    if (e.getCause() instanceof RuntimeException)
+		throw (RuntimeException) e.getCause();
+	    throw new RuntimeException(this+" fails to run replication: "+e.getCause());
+	}
+	finally
+	{
+	    pool.shutdown();
+	}
+    }
+
+    /** Merge results of replication run.
+     * @param trial trial of replication
+     */
+    protected void merge(MACTrial trial)
+    {
+	throughput.input(trial.throughput());
+	delay.input(trial.processor.delay.mean);
+	pooledDelay.merge(trial.processor.delay);
+    }
+
+    /** Print results with confidence intervals.
+     */
+    public void print()
+    {
+	System.out.println("Replications ="+throughput.sampleSize);
+	System.out.println("Throughput ="+throughput.mean+" +/- "+
+			   throughput.halfWidth(confidence));
+	System.out.println("Delay ="+delay.mean+" +/- "+
+			   delay.halfWidth(confidence));
+	System.out.println("Pooled Delay ="+pooledDelay.mean+
+			   " (std dev "+pooledDelay.stdDev()+
+			   ", "+pooledDelay.sampleSize+" samples)");
+    }
+
+    /** Task to run a replication.
+     */
+    protected class Replication
+	implements Callable
+    {
+	/** Index of replication.
+	 */
+	private int replication;
+	/** Seed of replication.
+	 */
+	private long seed;
+
+	/** Constructor.
+	 * @param replication index of replication
+	 * @param seed seed of replication
+	 */
+	public Replication(int replication, long seed)
+	{
+	    this.replication = replication;
+	    this.seed = seed;
+	}
+
+	/** Build and run trial of replication, with random streams
+	 * of the replication's seed.
+	 * @return trial run
+	 */
+	public Object call()
+	{
+	    RandomStreams.setCurrent(new RandomStreams(seed));
+	    MACTrial trial = newTrial(replication, seed);
+	    trial.simulate();
+	    return trial;
+	}
+    }
+
+    /** Run replications of CSMA trial.
+     * @param args density of grid and number of replications (both optional)
+     */
+    public static void main(String[] args)
+    {
+	final double density = (args.length >= 1)? Double.parseDouble(args[0]):3.0;
+	MACReplications runner = new MACReplications()
+	    {
+		protected MACTrial newTrial(int replication, long seed)
+		{
+		    MACTrial trial = new MACTrial(new Simulator());
+		    trial.pointprocess = new Grid(density);
+		    trial.generateNetwork(new CSMA(new Coordinate(0,0), 
+						   trial.networkChannel, 
+						   trial.commChannel,
+						   trial.queue, trial.processor, 
+						   trial.waitTime,1e-6));
+		    //Trigger by scheduling end of wait.
+		    for (int i = 0; i < trial.network.nodes.size(); i++)
+			trial.simulator.add(new Event(trial.waitTime.getInstance(),
+						      ((CSMA) trial.network.nodes.get(i)),
+						      CSMA.eventWaitEnded, null));
+		    return trial;
+		}
+	    };
+	if (args.length >= 2)
+	    runner.replications = Integer.parseInt(args[1]);
+	runner.run();
+	runner.print();
+    }
+}
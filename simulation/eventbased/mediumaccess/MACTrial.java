@@ -12,6 +12,7 @@ import simulation.utilities.routes.*;
 import simulation.utilities.structures.*;
 import simulation.utilities.packetprocessors.*;
 import simulation.distributions.*;
+import simulation.results.*;
 import simulation.eventbased.*;
 import simulation.eventbased.mediumaccess.*;
 import simulation.communications.channels.*;
@@ -23,6 +24,7 @@ import simulation.communications.queues.*;
  * @author ykk
  */
 public class MACTrial
+    implements java.io.Serializable
 {
     //Members
     /** Network Channel.
@@ -69,6 +71,12 @@ public class MACTrial
      * Defaulted to 1000.
      */
     public int sampleNeeded = 1000;
+    /** Statistical stopping rule, used instead of {@link #sampleNeeded}
+     * if given.
+     * Defaulted to null.
+     * @see #useStoppingRule(double)
+     */
+    public StoppingRule stoppingRule = null;
 
     //Methods
     /** Constructor for MAC trial.
@@ -81,17 +89,55 @@ public class MACTrial
     }
 
     /** Main function to run trial simulation.
+     * @see #simulate()
      */
     public void run()
     {
-	while ((processor.delay.sampleSize < sampleNeeded) &&
-	       (simulator.queue.size() != 0))
-	    simulator.runNextEvent();
+	simulate();
 
 	System.out.println("Sample Size ="+processor.delay.sampleSize);
 	System.out.println("Simulator Time ="+simulator.time());
-	System.out.println("Throughput ="+
-			   (processor.delay.sampleSize/simulator.time()));
+	System.out.println("Throughput ="+throughput());
+	if (stoppingRule != null)
+	    System.out.println("Delay: "+stoppingRule);
+    }
+
+    /** Stop trial once the confidence interval of delay after warm-up
+     * is narrow enough, instead of after a fixed number of samples.
+     * @param relativeHalfWidth relative half width of confidence
+     *                          interval required
+     * @return stopping rule used
+     * @see StoppingRule
+     */
+    public StoppingRule useStoppingRule(double relativeHalfWidth)
+    {
+	stoppingRule = new StoppingRule(processor.delay, relativeHalfWidth);
+	return stoppingRule;
+    }
+
+    /** Run trial simulation until the samples needed are collected
+     * (or the stopping rule is met) or no event is left, without 
+     * printing results.
+     * @see #sampleNeeded
+     * @see #stoppingRule
+     */
+    public void simulate()
+    {
+	if (stoppingRule != null)
+	    while (!stoppingRule.isDone() && (simulator.size() != 0))
+		simulator.runNextEvent();
+	else
+	    while ((processor.delay.sampleSize < sampleNeeded) &&
+		   (simulator.size() != 0))
+		simulator.runNextEvent();
+    }
+
+    /** Return throughput of trial simulated.
+     * @return packets received per unit time
+     */
+    public double throughput()
+    {
+	return processor.delay.sampleSize/simulator.time();
     }
 
     /** Generate network for simulation.
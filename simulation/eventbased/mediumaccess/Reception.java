@@ -0,0 +1,34 @@
+package simulation.eventbased.mediumaccess;
+
+import simulation.communications.nodes.*;
+
+/** Class to hold a packet being received, as payload of the event
+ * that ends its reception.  Receptions are reused by the receiving
+ * node once the reception has ended.
+ * @author ykk
+ */
+public class Reception
+    implements java.io.Serializable
+{
+    //Members
+    /** Node packet is received from.
+     */
+    public CommNode source;
+    /** Packet received.
+     */
+    public Object packet;
+    /** Next spare reception of receiving node.
+     */
+    Reception next;
+
+    //Methods
+    /** Constructor.
+     * @param source node packet is received from
+     * @param packet packet received
+     */
+    public Reception(CommNode source, Object packet)
+    {
+	this.source = source;
+	this.packet = packet;
+    }
+}
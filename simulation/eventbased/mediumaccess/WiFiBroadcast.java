@@ -38,12 +38,22 @@ public class WiFiBroadcast
      *          1 "Transmission Ended", 
      *          2 "Wait Ended"
      *          3 "Packet Reaches Destinations"
+     *          4 "Packet Arrived"
+     *          5 "Waited Slot"
      */
     public static final String[] events = {"Receive Ended", 
 					   "Transmission Ended", 
 					   "Wait Ended", 
 					   "Packet Reached",
+					   "Packet Arrived",
 					   "Waited Slot"};
+    /** Kind of typed event for "Waited Slot".
+     */
+    public static final int eventWaitedSlot = 5;
+    /** Timer for "Waited Slot", armed in the timer wheel of simulator.
+     * Disarmed when the countdown freezes.
+     */
+    protected EventTimer slotTimer = new EventTimer(this, eventWaitedSlot);
     //Methods
     /** Constructor.
      * Propagation delay set at 1 us. 
@@ -58,47 +68,55 @@ public class WiFiBroadcast
 			 CommChannel commChannel, Queue queue, 
 			 PacketProcessor processor, WiFiSpec spec)
     {
-	super(coordinate, channel, commChannel, queue, processor, null, 1e-6);
+	super(coordinate, channel, commChannel, queue, processor, 
+	      new Uniform(0,spec.minCW+1), 1e-6);
 	this.spec = spec;
 	cw = spec.minCW;
     }
 
     /** Event triggered interface.
-     * Added WiFi wait time.
+     * Maps string reference of event to its kind.
      * @param time current time
      * @param event event string definition
      * @param simulator reference to simulator
      * @see #events
+     * @see #run(double time, int kind, Object payload, Simulator simulator)
+     */
+    public void run(double time, String event, Simulator simulator)
+    {
+	runUntyped(time, Array.indexOf(events, event), event, simulator);
+    }
+
+    /** Typed event triggered interface.
+     * Added WiFi wait time.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event
+     * @param simulator reference to simulator
+     * @see #events
      * @see #state
      * @see #receive(CommNode source, Object packet, Simulator simulator)
      * @see #trigger(Simulator simulator)
      */
-    public void run(double time, String event, Simulator simulator)
+    public void run(double time, int kind, Object payload, Simulator simulator)
     {
-	//Waited slot
-	if (Array.indexOf(events, event) == 4)
+	switch (kind)
 	{
+	case eventWaitedSlot:
 	    if (onGoing != 0)
 		return;
-	    else
+	    else if (cwCount != 0)
 	    {
-		if (cwCount != 0)
-		{
-		    cwCount--;
-		    simulator.
-			add(new Event(simulator.time()+spec.slotTime,
-				      this,
-				      this.events[4])); //Waited Slot Scheduled
-		}
-		else
-		     simulator.
-			 add(new Event(simulator.time(),
-				       this,
-				       this.events[2])); //Wait Ended Scheduled
+		cwCount--;
+		simulator.arm(slotTimer, simulator.time()+spec.slotTime);
 	    }
+	    else
+		simulator.schedule(simulator.time(),
+				   this, eventWaitEnded, null);
+	    break;
+	default:
+	    super.run(time, kind, payload, simulator);
 	}
-	else
-	    super.run(time, event, simulator);
     }
 
     /** Schedule wait time.
@@ -109,16 +127,43 @@ public class WiFiBroadcast
 	if (!isTransmitting & (onGoing == 0))
 	{
 	    //Wait for DIFS
-	    waitTime = new Uniform(0,cw+1);
+	    ((Uniform) waitTime).endValue = cw+1;
 	    cwCount = (int) Math.floor(waitTime.getInstance());
 	    state = stateWaiting;
-	    simulator.add(new Event(simulator.time()+
-				    spec.sifs+2*spec.slotTime,
-				    this,
-				    this.events[4])); //Waited Slot Scheduled
+	    simulator.arm(slotTimer, simulator.time()+
+			  spec.sifs+2*spec.slotTime);
 	}
     }
 
+    /** Receive packets, freezing countdown of contention window.
+     * @param source reference to source node
+     * @param packet reference to packet
+     * @param simulator reference to simulator
+     */
+    public void receive(CommNode source, Object packet, Simulator simulator)
+    {
+	super.receive(source, packet, simulator);
+	simulator.disarm(slotTimer);
+    }
+
+    /** Save state of node, including contention window.
+     * @return state of node
+     */
+    public Object saveState()
+    {
+	return new Object[] {super.saveState(), new int[] {cw, cwCount}};
+    }
+
+    /** Restore state of node, including contention window.
+     * @param state state returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	super.restoreState(((Object[]) state)[0]);
+	cw = ((int[]) ((Object[]) state)[1])[0];
+	cwCount = ((int[]) ((Object[]) state)[1])[1];
+    }
+
     public Node newNode(Coordinate coordinate)
     {
 	return new WiFiBroadcast(coordinate, this.channel, this.commChannel, 
@@ -145,9 +190,7 @@ public class WiFiBroadcast
 	    trial.simulator.add(new Event(trial.waitTime.getInstance(),
 					  ((WiFiBroadcast) trial.network.
 					   nodes.get(i)),
-					  ((WiFiBroadcast) trial.network.
-					   nodes.get(i)).
-					  events[2]));
+					  eventWaitEnded, null));
 	trial.run();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ package simulation.eventbased.mediumaccess;
  * @author ykk
  */
 public class WiFiSpec
+    implements java.io.Serializable
 {
     //Members
     /** Minimum contention window.
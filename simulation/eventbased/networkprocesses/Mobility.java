@@ -5,16 +5,23 @@ import simulation.networks.mobility.*;
 import simulation.utilities.structures.*;
 
 /** Class to manage network flow in event driven simulation.
+ * Can also be run as a time stepped component, hosted in an
+ * {@link simulation.timebased.EmbeddedSimulator}, moving every 
+ * move interval.
  * @see MobilityModel
  * @author ykk
  */
 public class Mobility
-    implements EventTriggered
+    implements TypedEventTriggered, simulation.timebased.SkippableRunObject, 
+	       java.io.Serializable
 {
     //Members
     /** Array of events possible.
      */
     public static final String[] events = {"Move due"};
+    /** Kind of typed event for "Move due".
+     */
+    public static final int eventMoveDue = 0;
     /** Time interval to moves.
      */
     public double moveInterval;
@@ -34,7 +41,7 @@ public class Mobility
     }
 
     /** Event triggered interface.
-     * Object has a single state in which it waits for the next move.
+     * Maps string reference of event to its kind.
      * @param time current time
      * @param event event string definition
      * @param simulator reference to simulator
@@ -42,18 +49,58 @@ public class Mobility
      */
     public void run(double time, java.lang.String event, Simulator simulator)
     {
-	switch(Array.indexOf(events, event))
+	run(time, Array.indexOf(events, event), null, simulator);
+    }
+
+    /** Typed event triggered interface.
+     * Object has a single state in which it waits for the next move.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event (not used)
+     * @param simulator reference to simulator
+     * @see #events
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	switch(kind)
 	{
-	case 0: //Move due
+	case eventMoveDue:
 	    mobility.move();
-	    simulator.add(new Event(simulator.time()+moveInterval,
-				    this,
-				    this.events[0])); //move scheduled
+	    simulator.schedule(simulator.time()+moveInterval,
+			       this, eventMoveDue, null);
 	    break;
 	default:
-	    throw new RuntimeException(this+" encounters unknown event "+event);
+	    throw new RuntimeException(this+" encounters unknown event kind "+kind);
 	}
+    }
 
+    /** Run interface for time stepped simulation, moving once.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return true, as moved
+     */
+    public boolean run(double time, simulation.timebased.Simulator simulator)
+    {
+	mobility.move();
+	return true;
+    }
+
+    /** Number of slots till next move.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return slots in a move interval, less the slot moved in
+     */
+    public long idleSlots(double time, simulation.timebased.Simulator simulator)
+    {
+	return Math.max(0, Math.round(moveInterval/simulator.timeIncrement)-1);
+    }
+
+    /** Moves are never done.
+     * @return false, as in infinitely generating packet sources
+     */
+    public boolean needMoreRun()
+    {
+	return false;
     }
 
     /** Trigger start of route update.
@@ -63,8 +110,7 @@ public class Mobility
      */
     public void trigger(Simulator simulator, double delayFromNow)
     {
-	simulator.add(new Event(simulator.time()+delayFromNow,
-				this,
-				this.events[0])); //Move Due Scheduled
+	simulator.schedule(simulator.time()+delayFromNow,
+			   this, eventMoveDue, null);
     }
 }
\ No newline at end of file
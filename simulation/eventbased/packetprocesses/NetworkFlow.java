@@ -12,12 +12,15 @@ import simulation.utilities.structures.*;
  */
 public class NetworkFlow
     extends simulation.networks.simulator.NetworkFlow
-	    implements EventTriggered
+	    implements TypedEventTriggered
 {
     //Members
     /** Array of events possible.
      */
     public static final String[] events = {"Route Update Due"};
+    /** Kind of typed event for "Route Update Due".
+     */
+    public static final int eventRouteUpdateDue = 0;
     /** Time interval to update route.
      */
     public double updateInterval;
@@ -58,7 +61,7 @@ public class NetworkFlow
     }
 
     /** Event triggered interface.
-     * Object has a single state in which it waits for the next route update.
+     * Maps string reference of event to its kind.
      * @param time current time
      * @param event event string definition
      * @param simulator reference to simulator
@@ -66,16 +69,28 @@ public class NetworkFlow
      */
     public void run(double time, java.lang.String event, Simulator simulator)
     {
-	switch(Array.indexOf(events, event))
+	run(time, Array.indexOf(events, event), null, simulator);
+    }
+
+    /** Typed event triggered interface.
+     * Object has a single state in which it waits for the next route update.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event (not used)
+     * @param simulator reference to simulator
+     * @see #events
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	switch(kind)
 	{
-	case 0: //Route Update due
+	case eventRouteUpdateDue:
 	    getRoute();
-	    simulator.add(new Event(simulator.time()+updateInterval,
-				    this,
-				    this.events[0])); //Route Update scheduled
+	    simulator.schedule(simulator.time()+updateInterval,
+			       this, eventRouteUpdateDue, null);
 	    break;
 	default:
-	    throw new RuntimeException(this+" encounters unknown event "+event);
+	    throw new RuntimeException(this+" encounters unknown event kind "+kind);
 	}
     }
 
@@ -86,8 +101,7 @@ public class NetworkFlow
      */
     public void trigger(Simulator simulator, double delayFromNow)
     {
-	simulator.add(new Event(simulator.time()+delayFromNow,
-				this,
-				this.events[0])); //Route Update Due Scheduled
+	simulator.schedule(simulator.time()+delayFromNow,
+			   this, eventRouteUpdateDue, null);
     }
 }
\ No newline at end of file
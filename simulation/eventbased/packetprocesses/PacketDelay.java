@@ -9,13 +9,16 @@ import simulation.communications.packets.*;
  * @author ykk
  */
 public class PacketDelay
-    implements EventTriggered
+    implements TypedEventTriggered, java.io.Serializable
 {
     //Members
     /** Array of events.
      * Only have Delay Ended as event.
      */
     public String[] events = {"Delay Ended"};
+    /** Kind of typed event for "Delay Ended".
+     */
+    public static final int eventDelayEnded = 0;
     /** Packet to delay.
      */
     public Packet packet;
@@ -27,6 +30,16 @@ public class PacketDelay
     /** Reference to packet processing object.
      */
     public PacketProcess processor;
+    /** Indicate if object is reused once delay ended.
+     * @see #schedule(Packet packet, double delay, Simulator simulator, PacketProcess pktProcess, Object objectRef)
+     */
+    private boolean reusable = false;
+    /** Next spare object.
+     */
+    private PacketDelay next;
+    /** Spare objects of each thread running simulation.
+     */
+    private static final ThreadLocal spares = new ThreadLocal();
 
     //Methods
     /** Constructor.
@@ -52,23 +65,45 @@ public class PacketDelay
     }
 
     /** EventTriggered function to run events.
+     * Maps string reference of event to its kind.
      * @param time time to run events
      * @param event event to run
      * @param simulator reference to simulator
      */
     public void run(double time, java.lang.String event, Simulator simulator)
     {
-	switch (Array.indexOf(events,event))
+	run(time, Array.indexOf(events, event), null, simulator);
+    }
+
+    /** TypedEventTriggered function to run events.
+     * @param time time to run events
+     * @param kind kind of event to run
+     * @param payload payload of event (not used)
+     * @param simulator reference to simulator
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	switch (kind)
 	{
-	case 0: //Delay Ended
+	case eventDelayEnded:
 	    processor.process(packet, objectRef);
+	    if (reusable && simulator.recycling)
+	    {
+		packet = null;
+		processor = null;
+		objectRef = null;
+		next = (PacketDelay) spares.get();
+		spares.set(this);
+	    }
 	    break;
 	default:
-	    throw new RuntimeException(this+" receive unknown event "+event+" to be run");
+	    throw new RuntimeException(this+" receive unknown event kind "+kind+" to be run");
 	}
     }
 
     /** Schedule packet with delay.
+     * Delay objects and events are reused, so that scheduling does not
+     * allocate in steady state.
      * @param packet packet to be delayed
      * @param delay amount of time to delay packet
      * @param simulator reference to simulator
@@ -78,7 +113,21 @@ public class PacketDelay
     public static void schedule(Packet packet, double delay, Simulator simulator, 
 				PacketProcess pktProcess, Object objectRef)
     {
-	PacketDelay delayObj = new PacketDelay(packet, pktProcess, objectRef);
-	simulator.add(new Event(simulator.time()+delay, delayObj, delayObj.events[0]));
+	PacketDelay delayObj = (PacketDelay) spares.get();
+	if (delayObj == null)
+	{
+	    delayObj = new PacketDelay(packet, pktProcess, objectRef);
+	    delayObj.reusable = true;
+	}
+	else
+	{
+	    spares.set(delayObj.next);
+	    delayObj.next = null;
+	    delayObj.packet = packet;
+	    delayObj.processor = pktProcess;
+	    delayObj.objectRef = objectRef;
+	}
+	simulator.schedule(simulator.time()+delay, delayObj, 
+			   eventDelayEnded, null);
     }
 }
\ No newline at end of file
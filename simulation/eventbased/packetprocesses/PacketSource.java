@@ -12,12 +12,15 @@ import simulation.utilities.structures.*;
  */
 public class PacketSource
     extends simulation.networks.simulator.PacketSource
-    implements EventTriggered
+    implements TypedEventTriggered, Stateful
 {
     //Members
     /** Array of events possible.
      */
     public static final String[] events = {"Waiting Ended"};
+    /** Kind of typed event for "Waiting Ended".
+     */
+    public static final int eventWaitingEnded = 0;
     /** Interarrival distribution.
      */
     public Distribution interarrival;
@@ -74,7 +77,7 @@ public class PacketSource
 
 
     /** Event triggered interface.
-     * Object has a single state in which it waits for the next arrival.
+     * Maps string reference of event to its kind.
      * @param time current time
      * @param event event string definition
      * @param simulator reference to simulator
@@ -82,23 +85,57 @@ public class PacketSource
      */
     public void run(double time, java.lang.String event, Simulator simulator)
     {
-	switch(Array.indexOf(events, event))
+	run(time, Array.indexOf(events, event), null, simulator);
+    }
+
+    /** Typed event triggered interface.
+     * Object has a single state in which it waits for the next arrival.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event (not used)
+     * @param simulator reference to simulator
+     * @see #events
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	switch(kind)
 	{
-	case 0: //Waiting Ended
+	case eventWaitingEnded:
 	    newPacket(simulator);
 	    if ((packetNumber == 0) || 
 		((generatedNo < packetNumber) && (countGenerated)) ||
 		((admittedNo < packetNumber) && (!countGenerated)))
-		simulator.add(new Event(simulator.time()+
-					interarrival.getInstance(),
-					this,
-					this.events[0])); //Waiting Ended scheduled
+		simulator.schedule(simulator.time()+
+				   interarrival.getInstance(),
+				   this, eventWaitingEnded, null);
 	    break;
 	default:
-	    throw new RuntimeException(this+" encounters unknown event "+event);
+	    throw new RuntimeException(this+" encounters unknown event kind "+kind);
 	}
     }
     
+    /** Save number of packets generated and admitted, and position of 
+     * random stream of interarrival.
+     * @return state of source
+     */
+    public Object saveState()
+    {
+	return new Object[] {new int[] {generatedNo, admittedNo},
+			     interarrival.saveState()};
+    }
+
+    /** Restore number of packets generated and admitted, and position of
+     * random stream of interarrival.
+     * @param state state returned by {@link #saveState()}
+     */
+    public void restoreState(Object state)
+    {
+	int[] values = (int[]) ((Object[]) state)[0];
+	generatedNo = values[0];
+	admittedNo = values[1];
+	interarrival.restoreState(((Object[]) state)[1]);
+    }
+
     /** Trigger start of packet generation.
      * @param simulator reference to simulator
      * @param delayFromNow time to start generation in terms of 
@@ -106,8 +143,7 @@ public class PacketSource
      */
     public void trigger(Simulator simulator, double delayFromNow)
     {
-	simulator.add(new Event(simulator.time()+delayFromNow,
-				this,
-				this.events[0])); //Waiting Ended scheduled
+	simulator.schedule(simulator.time()+delayFromNow,
+			   this, eventWaitingEnded, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,372 @@
+package simulation.eventbased.parallel;
+
+import java.util.*;
+import simulation.eventbased.*;
+import simulation.eventbased.queues.*;
+import simulation.networks.nodes.*;
+
+/** Region of a partitioned network, simulated optimistically (Time Warp).
+ * Events are run without waiting for events from other regions.  
+ * Before each event, the state of objects the event can change is saved 
+ * (incremental state saving), and the events it schedules and cancels 
+ * (including those of timers) are recorded.  When an event from another
+ * region arrives in the past of the region (a straggler), events later 
+ * than it are undone: the states saved are restored, the events scheduled
+ * locally are cancelled, anti-messages are sent for events scheduled in 
+ * other regions, and events cancelled are made pending again.  Events 
+ * undone are returned to the queue with their sequence numbers, and so 
+ * are rerun in their original order.
+ * @see OptimisticSimulator
+ * @author ykk
+ */
+public class OptimisticRegion
+    extends RegionSimulator
+{
+    //Members
+    /** Records of events run, in order they are run.
+     * Records earlier than global virtual time are removed by fossil collection.
+     */
+    protected Vector history = new Vector();
+    /** Events for other regions that are cancelled, waiting to be delivered.
+     */
+    protected Vector antiOutbox = new Vector();
+    /** Record of event currently run.
+     */
+    private Record current = null;
+    /** Events of timers armed, indexed by timer.
+     */
+    private IdentityHashMap timers = new IdentityHashMap();
+
+    //Methods
+    /** Constructor.
+     * @param parent optimistic simulator region belongs to
+     * @param index index of region
+     * @param queue event queue to use
+     */
+    public OptimisticRegion(OptimisticSimulator parent, int index, EventQueue queue)
+    {
+	super(parent, index, queue);
+	recycling = false;
+    }
+
+    /** Add event to queue.
+     * Events for objects of other regions are held in the outbox, with
+     * no lookahead required.
+     * @param event event to add
+     * @return event as handle for cancellation (only for local events)
+     */
+    public Event add(Event event)
+    {
+	if (current != null)
+	    current.changes.add(event);
+
+	RegionSimulator owner = parent.region(event.object);
+	if ((owner == null) || (owner == this))
+	    return super.add(event);
+
+	if (event.time < time())
+	    throw new RuntimeException(event+" NON-CAUSALLY scheduled for region "+
+				       owner.index+" when time is "+time());
+	outbox.add(event);
+	return event;
+    }
+
+    /** Arm timer as a typed event, which is rolled back with the events.
+     * The timer wheel is not used, since its timers are not recorded.
+     * A timer that is armed is disarmed first.
+     * @param timer timer to arm
+     * @param time time to fire timer at
+     */
+    public void arm(EventTimer timer, double time)
+    {
+	disarm(timer);
+	setTimer(timer, add(new Event(time, timer.object, timer.kind, null)));
+    }
+
+    /** Disarm timer, cancelling its event.
+     * @param timer timer to disarm
+     * @return if timer was armed
+     */
+    public boolean disarm(EventTimer timer)
+    {
+	Event event = (Event) timers.get(timer);
+	if (event == null)
+	    return false;
+
+	setTimer(timer, null);
+	if (!event.isPending())
+	    return false;
+	tombstone(event);
+	return true;
+    }
+
+    /** Set event of timer, recording the event it replaces.
+     * @param timer timer to set
+     * @param event event of timer; null if timer is disarmed
+     */
+    private void setTimer(EventTimer timer, Event event)
+    {
+	Event previous = (Event) ((event == null)? timers.remove(timer):
+				  timers.put(timer, event));
+	if (current != null)
+	    current.changes.add(new TimerChange(timer, previous));
+    }
+
+    /** Mark pending event as cancelled, recording it in the event run.
+     * @param event event to cancel
+     */
+    protected void tombstone(Event event)
+    {
+	if (current != null)
+	    current.changes.add(new Cancellation(event));
+	super.tombstone(event);
+    }
+
+    /** Run events optimistically, up to (but excluding) time specified.
+     * @param bound time to run events up to
+     */
+    public void runUntil(double bound)
+    {
+	Event event;
+	while (nextTime() < bound)
+	{
+	    event = take();
+	    current = new Record(event, affected(event.object));
+	    history.add(current);
+	    try
+	    {
+		runEvent(event);
+	    }
+	    finally
+	    {
+		current = null;
+	    }
+	}
+    }
+
+    /** Return objects that an event of object specified can change.
+     * These are the object, its neighbors (if it is a node) and its
+     * source node (if it is a packet source), when they are local
+     * and {@link Stateful}.
+     * @param object object of event
+     * @return vector of objects
+     */
+    protected Vector affected(EventTriggered object)
+    {
+	Vector objects = new Vector();
+	addAffected(objects, object);
+	if (object instanceof Node)
+	{
+	    Node node = (Node) object;
+	    if (node.transmitPartners != null)
+		for (int i = 0; i < node.transmitPartners.size(); i++)
+		    addAffected(objects, node.transmitPartners.get(i));
+	    if ((node.receivePartners != null) && 
+		(node.receivePartners != node.transmitPartners))
+		for (int i = 0; i < node.receivePartners.size(); i++)
+		    addAffected(objects, node.receivePartners.get(i));
+	}
+	if (object instanceof simulation.networks.simulator.PacketSource)
+	    addAffected(objects, ((simulation.networks.simulator.PacketSource)
+				  object).source);
+	return objects;
+    }
+
+    /** Add object to vector of affected objects, if it is local and stateful.
+     * @param objects vector of affected objects
+     * @param object object to add
+     */
+    private void addAffected(Vector objects, Object object)
+    {
+	if ((object instanceof Stateful) && !objects.contains(object) &&
+	    ((parent.region(object) == null) || (parent.region(object) == this)))
+	    objects.add(object);
+    }
+
+    /** Receive event from another region.
+     * Rolls back region if event is earlier than events run.
+     * @param event event to receive
+     */
+    void deliver(Event event)
+    {
+	if (event.time < time())
+	    rollback(event.time);
+	super.deliver(event);
+    }
+
+    /** Cancel event received from another region (i.e., an anti-message).
+     * Rolls back region if event is already run.
+     * @param event event to cancel
+     */
+    void annihilate(Event event)
+    {
+	if (!event.isPending())
+	{
+	    int index = history.size()-1;
+	    while ((index >= 0) && (((Record) history.get(index)).event != event))
+		index--;
+	    if (index < 0)
+		throw new RuntimeException(this+" cannot find "+event+" to cancel");
+	    undo(index);
+	    setTime(event.time);
+	}
+	cancel(event);
+    }
+
+    /** Roll back region to time specified.
+     * Events later than the time are undone.
+     * @param time time to roll back to
+     */
+    protected void rollback(double time)
+    {
+	int index = history.size();
+	while ((index > 0) && (((Record) history.get(index-1)).event.time > time))
+	    index--;
+	undo(index);
+	setTime(time);
+    }
+
+    /** Undo events run, from latest to the one at index specified.
+     * @param index index of earliest record to undo
+     */
+    protected void undo(int index)
+    {
+	Record record;
+	Object change;
+	Event event;
+	while (history.size() > index)
+	{
+	    record = (Record) history.remove(history.size()-1);
+	    ((OptimisticSimulator) parent).rolledBack++;
+
+	    //Restore state
+	    for (int i = 0; i < record.objects.length; i++)
+		((Stateful) record.objects[i]).restoreState(record.states[i]);
+
+	    //Cancel events scheduled and revive events cancelled, latest first
+	    for (int i = record.changes.size()-1; i >= 0; i--)
+	    {
+		change = record.changes.get(i);
+		if (change instanceof Cancellation)
+		    restore(((Cancellation) change).event,
+			    ((Cancellation) change).sequence);
+		else if (change instanceof TimerChange)
+		    ((TimerChange) change).undo(timers);
+		else
+		{
+		    event = (Event) change;
+		    if (!isLocal(event.object))
+		    {
+			if (!outbox.remove(event))
+			    antiOutbox.add(event);
+		    }
+		    else if (event.isPending())
+			tombstone(event);
+		}
+	    }
+
+	    //Return event to queue, in its original order
+	    setTime(record.event.time);
+	    restore(record.event, record.event.sequence);
+	}
+    }
+
+    /** Remove records of events earlier than time specified.
+     * @param time global virtual time
+     */
+    protected void fossilCollect(double time)
+    {
+	int index = 0;
+	while ((index < history.size()) && 
+	       (((Record) history.get(index)).event.time < time))
+	    index++;
+	history.subList(0, index).clear();
+    }
+
+    /** Record of event run.
+     */
+    protected static class Record
+    {
+	/** Event run.
+	 */
+	Event event;
+	/** Objects whose states are saved.
+	 */
+	Object[] objects;
+	/** States saved before event is run.
+	 */
+	Object[] states;
+	/** Events scheduled (as {@link Event}) and cancelled (as 
+	 * {@link Cancellation}), and timers set (as {@link TimerChange})
+	 * by event, in order.
+	 */
+	Vector changes = new Vector();
+
+	/** Constructor, saving states of objects.
+	 * @param event event to be run
+	 * @param objects objects whose states are to be saved
+	 */
+	Record(Event event, Vector objects)
+	{
+	    this.event = event;
+	    this.objects = objects.toArray();
+	    states = new Object[this.objects.length];
+	    for (int i = 0; i < states.length; i++)
+		states[i] = ((Stateful) this.objects[i]).saveState();
+	}
+    }
+
+    /** Cancellation of an event, recorded to undo it.
+     */
+    protected static class Cancellation
+    {
+	/** Event cancelled.
+	 */
+	Event event;
+	/** Sequence number of event when cancelled.
+	 */
+	long sequence;
+
+	/** Constructor.
+	 * @param event event cancelled
+	 */
+	Cancellation(Event event)
+	{
+	    this.event = event;
+	    sequence = event.sequence;
+	}
+    }
+
+    /** Change of event of a timer, recorded to undo it.
+     */
+    protected static class TimerChange
+    {
+	/** Timer set.
+	 */
+	EventTimer timer;
+	/** Event of timer before it is set; null if timer was disarmed.
+	 */
+	Event previous;
+
+	/** Constructor.
+	 * @param timer timer set
+	 * @param previous event of timer before it is set
+	 */
+	TimerChange(EventTimer timer, Event previous)
+	{
+	    this.timer = timer;
+	    this.previous = previous;
+	}
+
+	/** Set timer back to its previous event.
+	 * @param timers events of timers, indexed by timer
+	 */
+	void undo(IdentityHashMap timers)
+	{
+	    if (previous == null)
+		timers.remove(timer);
+	    else
+		timers.put(timer, previous);
+	}
+    }
+}
@@ -0,0 +1,123 @@
+package simulation.eventbased.parallel;
+
+import java.util.*;
+import simulation.eventbased.*;
+import simulation.eventbased.queues.*;
+import simulation.networks.*;
+
+/** Optimistic (Time Warp) parallel event based simulator.
+ * Regions run their events in rounds without requiring lookahead, so 
+ * that models with zero-delay events between regions can run in parallel.
+ * Each round, events between regions (and anti-messages cancelling them) 
+ * are delivered, rolling back regions that have run past them.  Global 
+ * virtual time (GVT) is then the earliest pending event in all regions,
+ * since no event is in transit.  Records of events before GVT are fossil 
+ * collected, and every region runs its events before GVT plus the window
+ * of optimism.  This is also known as Breathing (or Bounded) Time Warp.
+ * <BR>
+ * Objects changed by events must be {@link Stateful} to be rolled back.
+ * Components shared between regions, e.g., packet processors collecting 
+ * results, are neither rolled back nor synchronized, and should only be
+ * used for results that tolerate events being undone.
+ * @see OptimisticRegion
+ * @author ykk
+ */
+public class OptimisticSimulator
+    extends ParallelSimulator
+{
+    //Members
+    /** Window of optimism beyond global virtual time.
+     */
+    public double window;
+    /** Number of events undone.
+     */
+    public long rolledBack = 0;
+
+    //Methods
+    /** Constructor.
+     * @param network network to partition
+     * @param columns number of columns of grid of regions
+     * @param rows number of rows of grid of regions
+     * @param window window of optimism beyond global virtual time
+     */
+    public OptimisticSimulator(Network network, int columns, int rows, 
+			       double window)
+    {
+	super(network, columns, rows);
+	if (window <= 0)
+	    throw new RuntimeException(this+" requires positive window and not "+window);
+	this.window = window;
+    }
+
+    /** Create optimistic region.
+     * Uses a 4-ary heap as event queue.
+     * @param index index of region
+     * @return new region
+     */
+    protected RegionSimulator newRegion(int index)
+    {
+	return new OptimisticRegion(this, index, new HeapEventQueue());
+    }
+
+    /** Run a round of events, up to time specified.
+     * @param endTime time to run events up to
+     * @return if a round is run
+     */
+    protected boolean runWindow(double endTime)
+    {
+	deliver();
+
+	double gvt = Double.POSITIVE_INFINITY;
+	for (int i = 0; i < regions.length; i++)
+	    gvt = Math.min(gvt, regions[i].nextTime());
+	for (int i = 0; i < regions.length; i++)
+	    ((OptimisticRegion) regions[i]).fossilCollect(gvt);
+	safeTime = Math.max(safeTime, Math.min(gvt, endTime));
+	if (gvt >= endTime)
+	    return false;
+
+	double bound = Math.min(gvt+window, endTime);
+	Vector tasks = new Vector();
+	for (int i = 0; i < regions.length; i++)
+	    if (regions[i].nextTime() < bound)
+		tasks.add(new RegionTask(regions[i], bound));
+	invoke(tasks);
+	return true;
+    }
+
+    /** Deliver events and anti-messages held by regions.
+     * Delivery can roll back regions, which in turn produces more 
+     * anti-messages.  Delivery continues until none is left.  Anti-messages
+     * are delivered before events, in order of region.
+     */
+    protected void deliver()
+    {
+	boolean delivered = true;
+	OptimisticRegion region;
+	Event event;
+	while (delivered)
+	{
+	    delivered = false;
+	    for (int i = 0; i < regions.length; i++)
+	    {
+		region = (OptimisticRegion) regions[i];
+		while (region.antiOutbox.size() != 0)
+		{
+		    event = (Event) region.antiOutbox.remove(0);
+		    ((OptimisticRegion) region(event.object)).annihilate(event);
+		    delivered = true;
+		}
+	    }
+	    for (int i = 0; i < regions.length; i++)
+	    {
+		region = (OptimisticRegion) regions[i];
+		while (region.outbox.size() != 0)
+		{
+		    event = (Event) region.outbox.remove(0);
+		    region(event.object).deliver(event);
+		    delivered = true;
+		}
+	    }
+	}
+    }
+}
@@ -0,0 +1,339 @@
+package simulation.eventbased.parallel;
+
+import java.util.*;
+import java.util.concurrent.*;
+import simulation.eventbased.*;
+import simulation.eventbased.queues.*;
+import simulation.eventbased.mediumaccess.*;
+import simulation.networks.*;
+import simulation.networks.nodes.*;
+
+/** Parallel event based simulator for networks partitioned into regions.
+ * The network area is divided into a grid of regions, each with its own 
+ * event queue, run by a pool of threads.  Regions are synchronized 
+ * conservatively in windows (as in YAWNS): given the earliest pending 
+ * event at time t among all regions, every region can safely run its
+ * events before t + lookahead, since no region can schedule an event
+ * for another region less than a lookahead ahead.  Events across regions
+ * are exchanged between windows, in order of region.
+ * <BR>
+ * Lookahead is the minimum delay between an event at a node and its 
+ * effect on a node of another region.  For CSMA, this is the propagation 
+ * delay, as neighbors in other regions are reached by "Packet Arrived" 
+ * events (which ends after the packet's transmit duration).  Components
+ * shared between regions, e.g., packet processors collecting results,
+ * are run from multiple threads and must be safe to do so.
+ * @see RegionSimulator
+ * @see CSMA#eventPacketArrived
+ * @author ykk
+ */
+public class ParallelSimulator
+    extends simulation.networks.simulator.Simulator
+{
+    //Members
+    /** Regions of network.
+     */
+    public RegionSimulator[] regions;
+    /** Lookahead between regions.
+     */
+    public double lookahead;
+    /** Number of threads to run regions.
+     * Defaulted to the number of processors available.
+     */
+    public int threads = Runtime.getRuntime().availableProcessors();
+    /** Map of object to region it is simulated in.
+     */
+    protected IdentityHashMap owners = new IdentityHashMap();
+    /** Time before which all events have been run.
+     */
+    protected double safeTime = 0;
+    /** Region run by current thread.
+     */
+    private ThreadLocal current = new ThreadLocal();
+    /** Thread pool to run regions.
+     */
+    private ExecutorService executor;
+
+    //Methods
+    /** Constructor.
+     * @param network network to partition
+     * @param columns number of columns of grid of regions
+     * @param rows number of rows of grid of regions
+     * @param lookahead minimum delay of events between regions
+     */
+    public ParallelSimulator(Network network, int columns, int rows, 
+			     double lookahead)
+    {
+	this(network, columns, rows);
+	if (lookahead <= 0)
+	    throw new RuntimeException(this+" requires positive lookahead and not "+lookahead);
+	this.lookahead = lookahead;
+    }
+
+    /** Constructor for extension, with zero lookahead.
+     * @param network network to partition
+     * @param columns number of columns of grid of regions
+     * @param rows number of rows of grid of regions
+     * @see #newRegion(int index)
+     */
+    protected ParallelSimulator(Network network, int columns, int rows)
+    {
+	regions = new RegionSimulator[columns*rows];
+	for (int i = 0; i < regions.length; i++)
+	    regions[i] = newRegion(i);
+	partition(network, columns, rows);
+    }
+
+    /** Create region.
+     * Uses a 4-ary heap as event queue.
+     * @param index index of region
+     * @return new region
+     */
+    protected RegionSimulator newRegion(int index)
+    {
+	return new RegionSimulator(this, index, new HeapEventQueue());
+    }
+
+    /** Return lookahead of CSMA nodes.
+     * @param node CSMA node
+     * @return propagation delay of node
+     */
+    public static double lookahead(CSMA node)
+    {
+	return node.propagation;
+    }
+
+    /** Assign nodes to regions.
+     * The bounding box of the nodes is divided into a grid of regions.
+     * @param network network to partition
+     * @param columns number of columns of grid of regions
+     * @param rows number of rows of grid of regions
+     */
+    protected void partition(Network network, int columns, int rows)
+    {
+	double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+	double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+	Node node;
+	for (int i = 0; i < network.nodes.size(); i++)
+	{
+	    node = (Node) network.nodes.get(i);
+	    minX = Math.min(minX, node.x);
+	    maxX = Math.max(maxX, node.x);
+	    minY = Math.min(minY, node.y);
+	    maxY = Math.max(maxY, node.y);
+	}
+
+	int column, row;
+	for (int i = 0; i < network.nodes.size(); i++)
+	{
+	    node = (Node) network.nodes.get(i);
+	    column = (maxX == minX)? 0:
+		(int) Math.min(columns-1, Math.floor(columns*(node.x-minX)/(maxX-minX)));
+	    row = (maxY == minY)? 0:
+		(int) Math.min(rows-1, Math.floor(rows*(node.y-minY)/(maxY-minY)));
+	    owners.put(node, regions[column+row*columns]);
+	}
+    }
+
+    /** Assign object to be simulated in the same region as a node.
+     * For example, packet sources must be in the region of its source node.
+     * Objects should be assigned before the simulation is run.
+     * @param object object to assign
+     * @param node node of region
+     */
+    public void assign(Object object, Node node)
+    {
+	owners.put(object, region(node));
+    }
+
+    /** Return region simulating object.
+     * @param object object to look up
+     * @return region of object; null if object is not assigned
+     */
+    public RegionSimulator region(Object object)
+    {
+	return (RegionSimulator) owners.get(object);
+    }
+
+    /** Add event to the region of its object.
+     * Events of objects not assigned are added to the first region.
+     * @param event event to add
+     * @return event as handle for cancellation
+     */
+    public Event add(Event event)
+    {
+	RegionSimulator owner = region(event.object);
+	return ((owner == null)? regions[0]:owner).add(event);
+    }
+
+    /** Run a window of events.
+     * Events from other regions are first delivered, before every region 
+     * runs (in parallel) its events that are earlier than the earliest
+     * pending event plus lookahead.
+     * @return if there are events left to run
+     */
+    public boolean runWindow()
+    {
+	return runWindow(Double.POSITIVE_INFINITY);
+    }
+
+    /** Run simulation until time specified.
+     * All events before the time are run.
+     * @param endTime time to run simulation to
+     */
+    public void run(double endTime)
+    {
+	while (runWindow(endTime));
+	safeTime = Math.max(safeTime, endTime);
+    }
+
+    /** Run a window of events, up to time specified.
+     * @param endTime time to run events up to
+     * @return if a window is run
+     */
+    protected boolean runWindow(double endTime)
+    {
+	deliver();
+
+	double first = Double.POSITIVE_INFINITY;
+	for (int i = 0; i < regions.length; i++)
+	    first = Math.min(first, regions[i].nextTime());
+	if (first >= endTime)
+	    return false;
+
+	double bound = Math.min(first+lookahead, endTime);
+	Vector tasks = new Vector();
+	for (int i = 0; i < regions.length; i++)
+	    if (regions[i].nextTime() < bound)
+		tasks.add(new RegionTask(regions[i], bound));
+	invoke(tasks);
+	safeTime = bound;
+	return true;
+    }
+
+    /** Deliver events held in outboxes of regions.
+     * Events are delivered in order of source region, and then in order
+     * they are scheduled, so that delivery is deterministic.
+     */
+    protected void deliver()
+    {
+	Event event;
+	for (int i = 0; i < regions.length; i++)
+	{
+	    for (int j = 0; j < regions[i].outbox.size(); j++)
+	    {
+		event = (Event) regions[i].outbox.get(j);
+		region(event.object).deliver(event);
+	    }
+	    regions[i].outbox.clear();
+	}
+    }
+
+    /** Run tasks with thread pool and wait for them to complete.
+     * @param tasks vector of tasks
+     */
+    protected void invoke(Vector tasks)
+    {
+	if (tasks.size() == 1)
+	{
+	    ((RegionTask) tasks.get(0)).call();
+	    return;
+	}
+
+	if (executor == null)
+	    executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+		{
+		    public Thread newThread(Runnable runnable)
+		    {
+			Thread thread = new Thread(runnable, "ParallelSimulator");
+			thread.setDaemon(true);
+			return thread;
+		    }
+		});
+
+	try
+	{
+	    List futures = executor.invokeAll(tasks);
+	    for (int i = 0; i < futures.size(); i++)
+		((Future) futures.get(i)).get();
+	}
+	catch (InterruptedException e)
+	{
+	    throw new RuntimeException(this+" interrupted while running regions: "+e);
+	}
+	catch (ExecutionException e)
+	{
+	    if (e.getCause() instanceof RuntimeException)
+		throw (RuntimeException) e.getCause();
+	    throw new RuntimeException(this+" fails to run region: "+e.getCause());
+	}
+    }
+
+    /** Stop threads used to run regions.
+     */
+    public void shutdown()
+    {
+	if (executor != null)
+	    executor.shutdown();
+	executor = null;
+    }
+
+    /** Return number of pending events, including those between regions.
+     * @return number of events to be run
+     */
+    public int size()
+    {
+	int size = 0;
+	for (int i = 0; i < regions.length; i++)
+	    size += regions[i].size()+regions[i].outbox.size();
+	return size;
+    }
+
+    /** Return current time.
+     * Time of region if called while running a region, else time before
+     * which all events have been run.
+     * @return time
+     */
+    public double time()
+    {
+	RegionSimulator region = (RegionSimulator) current.get();
+	return (region == null)? safeTime:region.time();
+    }
+
+    /** Task to run a region for a window.
+     */
+    protected class RegionTask
+	implements Callable
+    {
+	/** Region to run.
+	 */
+	private RegionSimulator region;
+	/** Time to run events up to.
+	 */
+	private double bound;
+
+	/** Constructor.
+	 * @param region region to run
+	 * @param bound time to run events up to
+	 */
+	RegionTask(RegionSimulator region, double bound)
+	{
+	    this.region = region;
+	    this.bound = bound;
+	}
+
+	public Object call()
+	{
+	    current.set(region);
+	    try
+	    {
+		region.runUntil(bound);
+	    }
+	    finally
+	    {
+		current.set(null);
+	    }
+	    return null;
+	}
+    }
+}
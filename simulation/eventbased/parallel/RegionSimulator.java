@@ -0,0 +1,90 @@
+package simulation.eventbased.parallel;
+
+import java.util.*;
+import simulation.eventbased.*;
+import simulation.eventbased.queues.*;
+
+/** Event based simulator for a region of a partitioned network.
+ * Events for objects simulated by other regions are held in an outbox,
+ * and delivered by the parallel simulator between windows.  Such events
+ * must be scheduled at least a lookahead ahead of current time.
+ * @see ParallelSimulator
+ * @author ykk
+ */
+public class RegionSimulator
+    extends Simulator
+{
+    //Members
+    /** Reference to parallel simulator.
+     */
+    public ParallelSimulator parent;
+    /** Index of region.
+     */
+    public int index;
+    /** Events for other regions, waiting to be delivered.
+     */
+    protected Vector outbox = new Vector();
+
+    //Methods
+    /** Constructor.
+     * @param parent parallel simulator region belongs to
+     * @param index index of region
+     * @param queue event queue to use
+     */
+    public RegionSimulator(ParallelSimulator parent, int index, EventQueue queue)
+    {
+	super(queue);
+	this.parent = parent;
+	this.index = index;
+    }
+
+    /** Add event to queue.
+     * Events for objects of other regions are held in the outbox.
+     * @param event event to add
+     * @return event as handle for cancellation (only for local events)
+     */
+    public Event add(Event event)
+    {
+	RegionSimulator owner = parent.region(event.object);
+	if ((owner == null) || (owner == this))
+	    return super.add(event);
+
+	if (event.time < time()+parent.lookahead)
+	    throw new RuntimeException(event+" scheduled for region "+owner.index+
+				       " within lookahead "+parent.lookahead+
+				       " of region "+index+" at time "+time());
+	outbox.add(event);
+	return event;
+    }
+
+    /** Add event from another region to queue.
+     * @param event event to add
+     */
+    void deliver(Event event)
+    {
+	super.add(event);
+    }
+
+    /** Run events in order, up to (but excluding) time specified.
+     * @param bound time to run events up to
+     */
+    public void runUntil(double bound)
+    {
+	while (nextTime() < bound)
+	    runNextEvent();
+    }
+
+    public boolean isLocal(EventTriggered object)
+    {
+	RegionSimulator owner = parent.region(object);
+	return (owner == null) || (owner == this);
+    }
+
+    /** Return string representation.
+     * @return string with index of region
+     */
+    public String toString()
+    {
+	return "Region "+index+" at "+time();
+    }
+}
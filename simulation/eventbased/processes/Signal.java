@@ -0,0 +1,42 @@
+package simulation.eventbased.processes;
+
+import java.util.*;
+import simulation.eventbased.*;
+
+/** Signal that processes can wait for.
+ * @see SimulationProcess#waitFor(Signal signal)
+ * @author ykk
+ */
+public class Signal
+{
+    //Members
+    /** Processes waiting for signal.
+     */
+    Vector waiting = new Vector();
+
+    //Methods
+    /** Fire signal, resuming all processes waiting for it at current time,
+     * in the order they wait.
+     * @param value value to resume processes with
+     * @param simulator reference to simulator
+     * @return number of processes resumed
+     */
+    public int fire(Object value, Simulator simulator)
+    {
+	int count = waiting.size();
+	for (int i = 0; i < count; i++)
+	    simulator.schedule(simulator.time(), 
+			       (SimulationProcess) waiting.get(i),
+			       SimulationProcess.eventResume, value);
+	waiting.clear();
+	return count;
+    }
+
+    /** Return number of processes waiting for signal.
+     * @return number of processes waiting
+     */
+    public int waiting()
+    {
+	return waiting.size();
+    }
+}
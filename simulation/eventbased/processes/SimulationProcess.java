@@ -0,0 +1,383 @@
+package simulation.eventbased.processes;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+import simulation.eventbased.*;
+import simulation.distributions.*;
+
+/** Process of process-oriented simulation, over the event based simulator.
+ * The behaviour of a process is written as a sequential method 
+ * ({@link #body()}), which passes time by {@link #hold(double delay)}, 
+ * {@link #waitFor(Signal signal)} and {@link #receive()}.  Each process 
+ * runs on a thread of its own, but only one thread runs at a time: the 
+ * simulator resumes a process by a typed event, and waits until the 
+ * process holds, waits or ends.  The simulator thus remains the only 
+ * authority on time, and processes need no synchronization.
+ * <BR>
+ * Threads are virtual threads when the Java runtime supports them, which
+ * allows a large number of processes with little memory each.  Otherwise, 
+ * platform threads with small stacks are used.
+ * <BR>
+ * Processes cannot be rolled back, and so cannot be used with optimistic
+ * simulators.
+ * @see Signal
+ * @author ykk
+ */
+public abstract class SimulationProcess
+    implements TypedEventTriggered
+{
+    //Members
+    /** Kind of typed event to resume process.
+     */
+    public static final int eventResume = 0;
+    /** Simulator running process.
+     */
+    protected Simulator simulator;
+    /** Messages received and not yet taken.
+     * @see #receive()
+     */
+    private LinkedList mailbox = new LinkedList();
+    /** Indicate if process waits in {@link #receive()}.
+     */
+    private boolean receiving = false;
+    /** Value process is resumed with.
+     */
+    private Object resumeValue;
+    /** Thread of process.
+     */
+    private Thread thread;
+    /** Thread of simulator, while process runs.
+     */
+    private volatile Thread caller;
+    /** Indicate if process (instead of simulator) is to run.
+     */
+    private volatile boolean running = false;
+    /** Indicate if process is to stop.
+     */
+    private volatile boolean stopping = false;
+    /** Indicate if process has ended.
+     */
+    private boolean ended = false;
+    /** Error thrown by process.
+     */
+    private Throwable error;
+    /** Stack size of platform threads of processes (in bytes).
+     * Defaulted to 64 kB.
+     */
+    public static long stackSize = 64*1024;
+    /** Builder of virtual threads; null if unsupported.
+     */
+    private static Object virtualBuilder = virtualBuilder();
+    /** Method of builder (Thread.Builder.unstarted) to create thread.
+     * Looked up on the public interface, since the class of the builder 
+     * is not accessible.
+     */
+    private static java.lang.reflect.Method unstarted = unstarted();
+
+    //Methods
+    /** Behaviour of process.
+     */
+    protected abstract void body();
+
+    /** Start process at time specified.
+     * @param simulator simulator to run process
+     * @param time time to start process
+     */
+    public void start(Simulator simulator, double time)
+    {
+	if (this.simulator != null)
+	    throw new RuntimeException(this+" is already started");
+	this.simulator = simulator;
+	simulator.schedule(time, this, eventResume, null);
+    }
+
+    /** Pass time.
+     * @param delay time to hold for
+     */
+    protected void hold(double delay)
+    {
+	simulator.schedule(simulator.time()+delay, this, eventResume, null);
+	suspend();
+    }
+
+    /** Wait for signal to be fired.
+     * @param signal signal to wait for
+     * @return value signal is fired with
+     */
+    protected Object waitFor(Signal signal)
+    {
+	signal.waiting.add(this);
+	return suspend();
+    }
+
+    /** Receive message, waiting for one if there is none.
+     * @return message received
+     * @see #send(Object message)
+     */
+    protected Object receive()
+    {
+	if (mailbox.isEmpty())
+	{
+	    receiving = true;
+	    suspend();
+	}
+	return mailbox.removeFirst();
+    }
+
+    /** Send message to process, at current time.
+     * Called by other processes or event triggered objects.
+     * @param message message to send
+     */
+    public void send(Object message)
+    {
+	mailbox.addLast(message);
+	if (receiving)
+	{
+	    receiving = false;
+	    simulator.schedule(simulator.time(), this, eventResume, null);
+	}
+    }
+
+    /** Return current time.
+     * @return time of simulator
+     */
+    protected double time()
+    {
+	return simulator.time();
+    }
+
+    /** Indicate if process has ended.
+     * @return if body of process has returned
+     */
+    public boolean hasEnded()
+    {
+	return ended;
+    }
+
+    /** Stop process that is not running, e.g., at the end of simulation.
+     * The body of process is unwound without running further.
+     */
+    public void stop()
+    {
+	if ((thread == null) || ended)
+	    return;
+	stopping = true;
+	transfer();
+    }
+
+    /** Event triggered interface.
+     * @param time current time
+     * @param event event string definition
+     * @param simulator reference to simulator
+     */
+    public void run(double time, String event, Simulator simulator)
+    {
+	run(time, eventResume, null, simulator);
+    }
+
+    /** Resume process, until it holds, waits or ends.
+     * @param time current time
+     * @param kind kind of event (i.e., {@link #eventResume})
+     * @param payload value to resume with
+     * @param simulator reference to simulator
+     */
+    public void run(double time, int kind, Object payload, Simulator simulator)
+    {
+	if (ended)
+	    throw new RuntimeException(this+" resumed after it has ended");
+	resumeValue = payload;
+	if (thread == null)
+	    thread = newThread();
+	transfer();
+    }
+
+    /** Run process thread and wait until it gives control back.
+     */
+    private void transfer()
+    {
+	caller = Thread.currentThread();
+	running = true;
+	if (thread.getState() == Thread.State.NEW)
+	    thread.start();
+	else
+	    LockSupport.unpark(thread);
+	while (running)
+	    LockSupport.park(this);
+	caller = null;
+
+	if (error != null)
+	{
+	    Throwable thrown = error;
+	    error = null;
+	    if (thrown instanceof RuntimeException)
+		throw (RuntimeException) thrown;
+	    if (thrown instanceof Error)
+		throw (Error) thrown;
+	    throw new RuntimeException(this+" fails: "+thrown);
+	}
+    }
+
+    /** Give control back to simulator, until process is resumed.
+     * @return value process is resumed with
+     */
+    private Object suspend()
+    {
+	if (Thread.currentThread() != thread)
+	    throw new RuntimeException(this+" can only hold or wait in its own body");
+	Thread waiting = caller;
+	running = false;
+	LockSupport.unpark(waiting);
+	while (!running)
+	    LockSupport.park(this);
+	if (stopping)
+	    throw new Stopped();
+	return resumeValue;
+    }
+
+    /** Create thread of process.
+     * @return thread (not started)
+     */
+    private Thread newThread()
+    {
+	Runnable runnable = new Runnable()
+	    {
+		public void run()
+		{
+		    try
+		    {
+			body();
+		    }
+		    catch (Stopped e)
+		    {
+		    }
+		    catch (Throwable e)
+		    {
+			error = e;
+		    }
+		    ended = true;
+		    Thread waiting = caller;
+		    running = false;
+		    LockSupport.unpark(waiting);
+		}
+	    };
+
+	if (virtualBuilder != null)
+	    try
+	    {
+		return (Thread) unstarted.invoke(virtualBuilder, 
+						 new Object[] {runnable});
+	    }
+	    catch (Exception e)
+	    {
+		throw new RuntimeException(this+" cannot create virtual thread: "+e);
+	    }
+	Thread thread = new Thread(null, runnable, toString(), stackSize);
+	thread.setDaemon(true);
+	return thread;
+    }
+
+    /** Return builder of virtual threads, if the runtime supports them.
+     * @return builder; null if unsupported
+     */
+    private static Object virtualBuilder()
+    {
+	try
+	{
+	    return Thread.class.getMethod("ofVirtual", new Class[0]).
+		invoke(null, new Object[0]);
+	}
+	catch (Exception e)
+	{
+	    return null;
+	}
+    }
+
+    /** Return method of builder to create thread, if the runtime supports
+     * virtual threads.
+     * @return method; null if unsupported
+     */
+    private static java.lang.reflect.Method unstarted()
+    {
+	if (virtualBuilder == null)
+	    return null;
+	try
+	{
+	    return Class.forName("java.lang.Thread$Builder").
+		getMethod("unstarted", new Class[] {Runnable.class});
+	}
+	catch (Exception e)
+	{
+	    throw new RuntimeException("SimulationProcess cannot find Thread.Builder.unstarted: "+e);
+	}
+    }
+
+    /** Indicate if processes run on virtual threads.
+     * @return if virtual threads are used
+     */
+    public static boolean isVirtual()
+    {
+	return virtualBuilder != null;
+    }
+
+    /** Run processes that each send a message to a sink after exponential
+     * holding times, to test the number of processes supported.
+     * @param args 1st argument is number of processes (defaulted to 1000);
+     *             2nd argument is time to run to (defaulted to 100)
+     */
+    public static void main(String[] args)
+    {
+	int number = (args.length >= 1)? Integer.parseInt(args[0]):1000;
+	final double endTime = (args.length >= 2)? Double.parseDouble(args[1]):100;
+	final Simulator simulator = new Simulator();
+	final int[] received = new int[1];
+	final SimulationProcess sink = new SimulationProcess()
+	    {
+		protected void body()
+		{
+		    while (true)
+		    {
+			receive();
+			received[0]++;
+		    }
+		}
+	    };
+	sink.start(simulator, 0);
+	SimulationProcess[] sources = new SimulationProcess[number];
+	for (int i = 0; i < number; i++)
+	{
+	    sources[i] = new SimulationProcess()
+		{
+		    Distribution holdTime = new Exponential(1.0);
+
+		    protected void body()
+		    {
+			while (time() < endTime)
+			{
+			    hold(holdTime.getInstance());
+			    sink.send(this);
+			}
+		    }
+		};
+	    sources[i].start(simulator, 0);
+	}
+
+	long start = System.currentTimeMillis();
+	while ((simulator.size() != 0) && (simulator.nextTime() < endTime))
+	    simulator.runNextEvent();
+	System.out.println("Processes ="+number+" ("+
+			   (isVirtual()? "virtual":"platform")+" threads)");
+	System.out.println("Messages ="+received[0]);
+	System.out.println("Run Time ="+(System.currentTimeMillis()-start)+" ms");
+
+	sink.stop();
+	for (int i = 0; i < number; i++)
+	    sources[i].stop();
+    }
+
+    /** Error to unwind body of process that is stopped.
+     */
+    private static class Stopped
+	extends Error
+    {
+    }
+}
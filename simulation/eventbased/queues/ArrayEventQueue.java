@@ -0,0 +1,234 @@
+package simulation.eventbased.queues;
+
+import java.util.*;
+import simulation.eventbased.*;
+
+/** Event queue implemented as a d-ary heap over parallel primitive arrays.
+ * Time and sequence of each event are kept in primitive arrays alongside
+ * the events, so that comparisons while sifting read contiguous memory 
+ * instead of following a reference to each event.  No object is allocated
+ * once the arrays have grown to the size of the queue.  The index of 
+ * each event is kept in {@link Event#position}, so that a specified 
+ * event is removed in O(log n) time.
+ * @see HeapEventQueue
+ * @author ykk
+ */
+public class ArrayEventQueue
+    implements EventQueue, java.io.Serializable
+{
+    //Members
+    /** Arity of heap.
+     * Defaulted to 4.
+     */
+    public final int arity;
+    /** Time of events in heap order.
+     */
+    protected double[] times;
+    /** Sequence number of events in heap order.
+     */
+    protected long[] sequences;
+    /** Events in heap order.
+     */
+    protected Event[] events;
+    /** Number of events in heap.
+     */
+    protected int size = 0;
+    /** Sequence number for next event added.
+     */
+    protected long nextSequence = 0;
+
+    //Methods
+    /** Constructor for 4-ary heap.
+     */
+    public ArrayEventQueue()
+    {
+	this(4);
+    }
+
+    /** Constructor.
+     * @param arity number of children of each node in heap
+     */
+    public ArrayEventQueue(int arity)
+    {
+	if (arity < 2)
+	    throw new RuntimeException(this+" cannot have arity "+arity+" less than 2");
+	this.arity = arity;
+	times = new double[64];
+	sequences = new long[64];
+	events = new Event[64];
+    }
+
+    public void add(Event event)
+    {
+	event.sequence = nextSequence++;
+	restore(event);
+    }
+
+    public void restore(Event event)
+    {
+	if (size == events.length)
+	{
+	    times = Arrays.copyOf(times, 2*size);
+	    sequences = Arrays.copyOf(sequences, 2*size);
+	    events = Arrays.copyOf(events, 2*size);
+	}
+	siftUp(size++, event.time, event.sequence, event);
+    }
+
+    public Event remove()
+    {
+	if (size == 0)
+	    return null;
+
+	Event event = events[0];
+	removeAt(0);
+	return event;
+    }
+
+    public Event peek()
+    {
+	return (size == 0)? null:events[0];
+    }
+
+    public boolean remove(Event event)
+    {
+	int index = event.position;
+	if ((index < 0) || (index >= size) || (events[index] != event))
+	    return false;
+	removeAt(index);
+	return true;
+    }
+
+    public int size()
+    {
+	return size;
+    }
+
+    public Iterator iterator()
+    {
+	return Arrays.asList(events).subList(0, size).iterator();
+    }
+
+    /** Return time of next event.
+     * @return time of next event; positive infinity if queue is empty
+     */
+    public double peekTime()
+    {
+	return (size == 0)? Double.POSITIVE_INFINITY:times[0];
+    }
+
+    /** Remove event at specified index of heap.
+     * @param index index of event to remove
+     */
+    protected void removeAt(int index)
+    {
+	events[index].position = -1;
+	size--;
+	double time = times[size];
+	long sequence = sequences[size];
+	Event last = events[size];
+	events[size] = null;
+	if (index == size)
+	    return;
+
+	if ((index > 0) && precedes(time, sequence, (index-1)/arity))
+	    siftUp(index, time, sequence, last);
+	else
+	    siftDown(index, time, sequence, last);
+    }
+
+    /** Indicate if time and sequence specified precede those at index.
+     * @param time time of event
+     * @param sequence sequence number of event
+     * @param index index in heap to compare to
+     * @return if event specified is to be run first
+     */
+    private boolean precedes(double time, long sequence, int index)
+    {
+	return precedes(time, sequence, times[index], sequences[index]);
+    }
+
+    /** Indicate if first time and sequence precede the second.
+     * @param time1 time of first event
+     * @param sequence1 sequence number of first event
+     * @param time2 time of second event
+     * @param sequence2 sequence number of second event
+     * @return if first event is to be run first
+     */
+    private static boolean precedes(double time1, long sequence1, 
+				    double time2, long sequence2)
+    {
+	return (time1 < time2) || 
+	    ((time1 == time2) && (sequence1 < sequence2));
+    }
+
+    /** Place entry at specified index.
+     * @param index index in heap
+     * @param time time of event
+     * @param sequence sequence number of event
+     * @param event event
+     */
+    private void set(int index, double time, long sequence, Event event)
+    {
+	times[index] = time;
+	sequences[index] = sequence;
+	events[index] = event;
+	event.position = index;
+    }
+
+    /** Move entry at index from to index to.
+     * @param to index to move to
+     * @param from index to move from
+     */
+    private void move(int to, int from)
+    {
+	times[to] = times[from];
+	sequences[to] = sequences[from];
+	events[to] = events[from];
+	events[to].position = to;
+    }
+
+    /** Move event up the heap from the specified index.
+     * @param index index to place event at
+     * @param time time of event
+     * @param sequence sequence number of event
+     * @param event event to place
+     */
+    protected void siftUp(int index, double time, long sequence, Event event)
+    {
+	int parent;
+	while (index > 0)
+	{
+	    parent = (index-1)/arity;
+	    if (!precedes(time, sequence, parent))
+		break;
+	    move(index, parent);
+	    index = parent;
+	}
+	set(index, time, sequence, event);
+    }
+
+    /** Move event down the heap from the specified index.
+     * @param index index to place event at
+     * @param time time of event
+     * @param sequence sequence number of event
+     * @param event event to place
+     */
+    protected void siftDown(int index, double time, long sequence, Event event)
+    {
+	int child, last, best;
+	while ((child = index*arity+1) < size)
+	{
+	    best = child;
+	    last = Math.min(child+arity, size);
+	    for (int i = child+1; i < last; i++)
+		if (precedes(times[i], sequences[i], best))
+		    best = i;
+	    if (!precedes(times[best], sequences[best], time, sequence))
+		break;
+	    move(index, best);
+	    index = best;
+	}
+	set(index, time, sequence, event);
+    }
+}
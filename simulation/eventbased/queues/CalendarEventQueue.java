@@ -0,0 +1,254 @@
+package simulation.eventbased.queues;
+
+import java.util.*;
+import simulation.eventbased.*;
+import simulation.utilities.structures.*;
+
+/** Event queue implemented as a calendar queue.
+ * Events are hashed by time into buckets, each covering a "day" of
+ * the specified width in a "year" of buckets.  Events are removed by
+ * walking the calendar from the current day.  Number of buckets and 
+ * bucket width are recalculated as the queue grows and shrinks, so that 
+ * add and remove take O(1) expected time.
+ * <BR>See R. Brown, "Calendar Queues: A Fast O(1) Priority Queue 
+ * Implementation for the Simulation Event Set Problem", 
+ * Communications of the ACM, 31(10), 1988.
+ * @author ykk
+ */
+public class CalendarEventQueue
+    implements EventQueue, java.io.Serializable
+{
+    //Members
+    /** Buckets of calendar, each sorted by time and sequence.
+     */
+    protected SortedVector[] buckets;
+    /** Width of each bucket (in unit of time).
+     */
+    protected double width;
+    /** Index of bucket of current day.
+     */
+    protected int current = 0;
+    /** Current day, i.e., number of bucket widths since time zero.
+     */
+    protected long day = 0;
+    /** Number of events in queue.
+     */
+    protected int size = 0;
+    /** Sequence number for next event added.
+     */
+    protected long nextSequence = 0;
+    /** Minimum number of buckets.
+     */
+    public static final int minBuckets = 2;
+    /** Number of events sampled to estimate bucket width.
+     */
+    public static final int sampleSize = 25;
+
+    //Methods
+    /** Constructor.
+     * Initial bucket width of 1.0.
+     */
+    public CalendarEventQueue()
+    {
+	this(1.0);
+    }
+
+    /** Constructor.
+     * @param width initial width of bucket
+     */
+    public CalendarEventQueue(double width)
+    {
+	this.width = width;
+	buckets = newBuckets(minBuckets);
+    }
+
+    public void add(Event event)
+    {
+	event.sequence = nextSequence++;
+	restore(event);
+    }
+
+    public void restore(Event event)
+    {
+	insert(event);
+	size++;
+	if (size > 2*buckets.length)
+	    resize(2*buckets.length);
+    }
+
+    public Event remove()
+    {
+	int index = locate();
+	if (index == -1)
+	    return null;
+
+	size--;
+	Event event = (Event) buckets[index].remove(0);
+	if ((size < buckets.length/2) && (buckets.length > minBuckets))
+	    resize(buckets.length/2);
+	return event;
+    }
+
+    public Event peek()
+    {
+	int index = locate();
+	return (index == -1)? null:(Event) buckets[index].get(0);
+    }
+
+    public boolean remove(Event event)
+    {
+	SortedVector bucket = buckets[bucket(day(event.time))];
+	for (int i = 0; i < bucket.size(); i++)
+	    if (bucket.get(i) == event)
+	    {
+		bucket.remove(i);
+		size--;
+		return true;
+	    }
+	return false;
+    }
+
+    public int size()
+    {
+	return size;
+    }
+
+    public Iterator iterator()
+    {
+	Vector events = new Vector(size);
+	for (int i = 0; i < buckets.length; i++)
+	    events.addAll(buckets[i]);
+	return events.iterator();
+    }
+
+    /** Insert event into its bucket.
+     * @param event event to insert
+     */
+    protected void insert(Event event)
+    {
+	long eventDay = day(event.time);
+	buckets[bucket(eventDay)].add(event);
+	if (eventDay < day)
+	{
+	    //Event is earlier than current day, rewind calendar
+	    day = eventDay;
+	    current = bucket(eventDay);
+	}
+    }
+
+    /** Locate bucket containing the next event.
+     * Calendar is advanced to the day of the next event.
+     * @return index of bucket; -1 if queue is empty
+     */
+    protected int locate()
+    {
+	if (size == 0)
+	    return -1;
+
+	//Walk calendar for a year
+	int index = current;
+	for (int i = 0; i < buckets.length; i++)
+	{
+	    if ((buckets[index].size() != 0) &&
+		(day(((Event) buckets[index].get(0)).time) <= day+i))
+	    {
+		current = index;
+		day += i;
+		return index;
+	    }
+	    index = (index+1 == buckets.length)? 0:index+1;
+	}
+
+	//No event within a year, search directly
+	Event first = null;
+	for (int i = 0; i < buckets.length; i++)
+	    if ((buckets[i].size() != 0) && 
+		((first == null) || 
+		 ((Event) buckets[i].get(0)).precedes(first)))
+	    {
+		first = (Event) buckets[i].get(0);
+		index = i;
+	    }
+	current = index;
+	day = day(first.time);
+	return index;
+    }
+
+    /** Resize calendar and recalculate bucket width.
+     * @param bucketNo new number of buckets
+     */
+    protected void resize(int bucketNo)
+    {
+	Event[] events = new Event[size];
+	int n = 0;
+	for (int i = 0; i < buckets.length; i++)
+	    for (int j = 0; j < buckets[i].size(); j++)
+		events[n++] = (Event) buckets[i].get(j);
+	Arrays.sort(events);
+
+	width = estimateWidth(events);
+	buckets = newBuckets(Math.max(bucketNo, minBuckets));
+	if (events.length != 0)
+	    day = day(events[0].time);
+	current = bucket(day);
+	for (int i = 0; i < events.length; i++)
+	    insert(events[i]);
+    }
+
+    /** Estimate bucket width from separation of events at the head of queue.
+     * Width is set to three times the average separation, ignoring 
+     * separations that are larger than twice the average.
+     * @param events sorted array of events
+     * @return estimated width; current width if estimate is not possible
+     */
+    protected double estimateWidth(Event[] events)
+    {
+	int n = Math.min(events.length, sampleSize);
+	if (n < 2)
+	    return width;
+
+	double average = (events[n-1].time-events[0].time)/(n-1);
+	double total = 0;
+	int count = 0;
+	for (int i = 1; i < n; i++)
+	    if ((events[i].time-events[i-1].time) <= 2*average)
+	    {
+		total += events[i].time-events[i-1].time;
+		count++;
+	    }
+
+	if ((count == 0) || (total <= 0))
+	    return width;
+	return 3*total/count;
+    }
+
+    /** Return day of specified time.
+     * @param time time to get day for
+     * @return number of bucket widths since time zero
+     */
+    protected long day(double time)
+    {
+	return (long) Math.floor(time/width);
+    }
+
+    /** Return bucket index of specified day.
+     * @param day day to get bucket for
+     * @return index of bucket
+     */
+    protected int bucket(long day)
+    {
+	return (int) Math.floorMod(day, (long) buckets.length);
+    }
+
+    /** Create empty buckets.
+     * @param bucketNo number of buckets
+     * @return array of empty buckets
+     */
+    private SortedVector[] newBuckets(int bucketNo)
+    {
+	SortedVector[] newBuckets = new SortedVector[bucketNo];
+	for (int i = 0; i < bucketNo; i++)
+	    newBuckets[i] = new SortedVector();
+	return newBuckets;
+    }
+}
@@ -0,0 +1,56 @@
+package simulation.eventbased.queues;
+
+import java.util.*;
+import simulation.eventbased.*;
+
+/** Interface for the pending event set of an event based simulator.
+ * Events are removed in order of time.  Events of equal time are
+ * removed in the order they are added.
+ * @see Event#precedes(Event event)
+ * @see simulation.eventbased.Simulator
+ * @author ykk
+ */
+public interface EventQueue
+{
+    /** Add event to queue.
+     * Sequence number of event is assigned by the queue.
+     * @param event event to add
+     * @see Event#sequence
+     */
+    public void add(Event event);
+
+    /** Add event removed from queue back to it, keeping its sequence
+     * number, e.g., when its run is rolled back.  The event is then 
+     * removed in its original order among events of the same time.
+     * @param event event to add, with sequence number assigned by queue
+     * @see #add(Event event)
+     */
+    public void restore(Event event);
+
+    /** Remove and return next event.
+     * @return next event; null if queue is empty
+     */
+    public Event remove();
+
+    /** Return next event without removing it.
+     * @return next event; null if queue is empty
+     */
+    public Event peek();
+
+    /** Remove specified event from queue.
+     * @param event event to remove (compared by reference)
+     * @return if event is found and removed
+     */
+    public boolean remove(Event event);
+
+    /** Return number of events in queue.
+     * @return number of events
+     */
+    public int size();
+
+    /** Return iterator over events in queue.
+     * Events are not iterated in any particular order.
+     * @return iterator over events
+     */
+    public Iterator iterator();
+}
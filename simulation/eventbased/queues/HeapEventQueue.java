@@ -0,0 +1,159 @@
+package simulation.eventbased.queues;
+
+import java.util.*;
+import simulation.eventbased.*;
+
+/** Event queue implemented as an array based d-ary heap.
+ * Add and remove take O(log n) time, including removal of a specified
+ * event, whose index in the heap is kept in {@link Event#position}.  A 4-ary heap is usually 
+ * faster than a binary heap, since it is shallower and its 
+ * children are adjacent in memory.
+ * @author ykk
+ */
+public class HeapEventQueue
+    implements EventQueue, java.io.Serializable
+{
+    //Members
+    /** Arity of heap.
+     * Defaulted to 4.
+     */
+    public final int arity;
+    /** Array of events in heap order.
+     */
+    protected Event[] heap;
+    /** Number of events in heap.
+     */
+    protected int size = 0;
+    /** Sequence number for next event added.
+     */
+    protected long nextSequence = 0;
+
+    //Methods
+    /** Constructor for 4-ary heap.
+     */
+    public HeapEventQueue()
+    {
+	this(4);
+    }
+
+    /** Constructor.
+     * @param arity number of children of each node in heap
+     */
+    public HeapEventQueue(int arity)
+    {
+	if (arity < 2)
+	    throw new RuntimeException(this+" cannot have arity "+arity+" less than 2");
+	this.arity = arity;
+	heap = new Event[64];
+    }
+
+    public void add(Event event)
+    {
+	event.sequence = nextSequence++;
+	if (size == heap.length)
+	    heap = Arrays.copyOf(heap, 2*size);
+	siftUp(size++, event);
+    }
+
+    public void restore(Event event)
+    {
+	if (size == heap.length)
+	    heap = Arrays.copyOf(heap, 2*size);
+	siftUp(size++, event);
+    }
+
+    public Event remove()
+    {
+	if (size == 0)
+	    return null;
+
+	Event event = heap[0];
+	removeAt(0);
+	return event;
+    }
+
+    public Event peek()
+    {
+	return (size == 0)? null:heap[0];
+    }
+
+    public boolean remove(Event event)
+    {
+	int index = event.position;
+	if ((index < 0) || (index >= size) || (heap[index] != event))
+	    return false;
+	removeAt(index);
+	return true;
+    }
+
+    public int size()
+    {
+	return size;
+    }
+
+    public Iterator iterator()
+    {
+	return Arrays.asList(heap).subList(0, size).iterator();
+    }
+
+    /** Remove event at specified index of heap.
+     * @param index index of event to remove
+     */
+    protected void removeAt(int index)
+    {
+	heap[index].position = -1;
+	Event last = heap[--size];
+	heap[size] = null;
+	if (index == size)
+	    return;
+
+	if ((index > 0) && last.precedes(heap[(index-1)/arity]))
+	    siftUp(index, last);
+	else
+	    siftDown(index, last);
+    }
+
+    /** Move event up the heap from the specified index.
+     * @param index index to place event at
+     * @param event event to place
+     */
+    protected void siftUp(int index, Event event)
+    {
+	int parent;
+	while (index > 0)
+	{
+	    parent = (index-1)/arity;
+	    if (!event.precedes(heap[parent]))
+		break;
+	    heap[index] = heap[parent];
+	    heap[index].position = index;
+	    index = parent;
+	}
+	heap[index] = event;
+	event.position = index;
+    }
+
+    /** Move event down the heap from the specified index.
+     * @param index index to place event at
+     * @param event event to place
+     */
+    protected void siftDown(int index, Event event)
+    {
+	int child, last, best;
+	while ((child = index*arity+1) < size)
+	{
+	    best = child;
+	    last = Math.min(child+arity, size);
+	    for (int i = child+1; i < last; i++)
+		if (heap[i].precedes(heap[best]))
+		    best = i;
+	    if (!heap[best].precedes(event))
+		break;
+	    heap[index] = heap[best];
+	    heap[index].position = index;
+	    index = best;
+	}
+	heap[index] = event;
+	event.position = index;
+    }
+}
@@ -0,0 +1,276 @@
+package simulation.eventbased.trace;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/** Reader of binary trace of events, to inspect or replay it.
+ * Files of the trace are memory-mapped and read in order of sequence,
+ * and records can be filtered by object, kind and time.  The main 
+ * function provides a command line tool, e.g., 
+ * <PRE>
+ * java simulation.eventbased.trace.TraceReader trace -object 5 -kind 2
+ * java simulation.eventbased.trace.TraceReader trace -count
+ * java simulation.eventbased.trace.TraceReader trace -diff otherTrace
+ * </PRE>
+ * @see TraceWriter
+ * @author ykk
+ */
+public class TraceReader
+{
+    //Members
+    /** Time of current record.
+     */
+    public double time;
+    /** Kind of current record.
+     */
+    public int kind;
+    /** Object id of current record.
+     */
+    public int object;
+    /** Packet id of current record; -1 if none.
+     */
+    public long packet;
+    /** Only read records of this object id, if not negative.
+     * Defaulted to -1.
+     */
+    public int objectFilter = -1;
+    /** Only read records of this kind, if not {@link Integer#MIN_VALUE}.
+     */
+    public int kindFilter = Integer.MIN_VALUE;
+    /** Only read records at or after this time.
+     */
+    public double fromTime = Double.NEGATIVE_INFINITY;
+    /** Only read records before this time.
+     */
+    public double toTime = Double.POSITIVE_INFINITY;
+    /** Buffers of files, in order of sequence.
+     */
+    private Vector buffers = new Vector();
+    /** Index of file being read.
+     */
+    private int current = 0;
+    /** Names of objects and string events, by key "object id" or "event kind".
+     */
+    private HashMap names = new HashMap();
+
+    //Methods
+    /** Constructor.
+     * @param prefix prefix of trace files
+     */
+    public TraceReader(String prefix)
+    {
+	Vector sequences = new Vector();
+	for (int index = 0; new File(TraceWriter.filename(prefix, index)).exists(); index++)
+	{
+	    ByteBuffer buffer = map(TraceWriter.filename(prefix, index));
+	    if ((buffer.getInt(0) != TraceWriter.magic) || 
+		(buffer.getInt(4) != TraceWriter.recordSize))
+		throw new RuntimeException(this+" finds "+TraceWriter.filename(prefix, index)+
+					   " not a trace file");
+	    long sequence = buffer.getLong(8);
+	    int position = 0;
+	    while ((position < sequences.size()) && 
+		   (((Long) sequences.get(position)).longValue() < sequence))
+		position++;
+	    sequences.add(position, new Long(sequence));
+	    buffer.position(TraceWriter.headerSize);
+	    buffer.limit(TraceWriter.headerSize+
+			 (int) (buffer.getLong(16)*TraceWriter.recordSize));
+	    buffers.add(position, buffer);
+	}
+	if (buffers.size() == 0)
+	    throw new RuntimeException(this+" finds no trace file of "+prefix);
+	readNames(prefix+".names");
+    }
+
+    /** Map trace file.
+     * @param filename name of file
+     * @return buffer of file
+     */
+    private static ByteBuffer map(String filename)
+    {
+	try
+	{
+	    FileChannel channel = new RandomAccessFile(filename, "r").getChannel();
+	    try
+	    {
+		return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	    }
+	    finally
+	    {
+		channel.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException("TraceReader fails to map "+filename+": "+e);
+	}
+    }
+
+    /** Read names of objects and string events, if available.
+     * @param filename name of file
+     */
+    private void readNames(String filename)
+    {
+	if (!new File(filename).exists())
+	    return;
+	try
+	{
+	    BufferedReader reader = new BufferedReader(new FileReader(filename));
+	    String line;
+	    while ((line = reader.readLine()) != null)
+	    {
+		String[] fields = line.split("\t", 3);
+		if (fields.length == 3)
+		    names.put(fields[0]+" "+fields[1], fields[2]);
+	    }
+	    reader.close();
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException(this+" fails to read "+filename+": "+e);
+	}
+    }
+
+    /** Read next record that passes the filters.
+     * @return if a record is read; false at the end of trace
+     */
+    public boolean next()
+    {
+	while (current < buffers.size())
+	{
+	    ByteBuffer buffer = (ByteBuffer) buffers.get(current);
+	    while (buffer.remaining() >= TraceWriter.recordSize)
+	    {
+		time = buffer.getDouble();
+		kind = buffer.getInt();
+		object = buffer.getInt();
+		packet = buffer.getLong();
+		if (((objectFilter < 0) || (object == objectFilter)) &&
+		    ((kindFilter == Integer.MIN_VALUE) || (kind == kindFilter)) &&
+		    (time >= fromTime) && (time < toTime))
+		    return true;
+	    }
+	    current++;
+	}
+	return false;
+    }
+
+    /** Return name of object, as written by the trace.
+     * @param id id of object
+     * @return name of object; the id if unknown
+     */
+    public String objectName(int id)
+    {
+	String name = (String) names.get("object "+id);
+	return (name == null)? ("#"+id):name;
+    }
+
+    /** Return name of kind.
+     * @param kind kind of event
+     * @return name of string event; the kind if unknown
+     */
+    public String kindName(int kind)
+    {
+	String name = (String) names.get("event "+kind);
+	return (name == null)? String.valueOf(kind):name;
+    }
+
+    /** Return string representation of current record.
+     * @return record with time, kind, object and packet
+     */
+    public String record()
+    {
+	return time+"\t"+kindName(kind)+"\t"+objectName(object)+"\t"+
+	    ((packet < 0)? "-":String.valueOf(packet));
+    }
+
+    /** Command line tool to inspect trace.
+     * @param args prefix of trace, followed by options
+     *             -object id, -kind kind, -from time, -to time (filters),
+     *             -count (count records by kind), and
+     *             -diff prefix (find first record that differs from another trace)
+     */
+    public static void main(String[] args)
+    {
+	TraceReader reader = new TraceReader(args[0]);
+	boolean count = false;
+	TraceReader other = null;
+	for (int i = 1; i < args.length; i++)
+	    if (args[i].equals("-object"))
+		reader.objectFilter = Integer.parseInt(args[++i]);
+	    else if (args[i].equals("-kind"))
+		reader.kindFilter = Integer.parseInt(args[++i]);
+	    else if (args[i].equals("-from"))
+		reader.fromTime = Double.parseDouble(args[++i]);
+	    else if (args[i].equals("-to"))
+		reader.toTime = Double.parseDouble(args[++i]);
+	    else if (args[i].equals("-count"))
+		count = true;
+	    else if (args[i].equals("-diff"))
+		other = new TraceReader(args[++i]);
+	    else
+		throw new RuntimeException("TraceReader does not know option "+args[i]);
+
+	if (other != null)
+	{
+	    other.objectFilter = reader.objectFilter;
+	    other.kindFilter = reader.kindFilter;
+	    other.fromTime = reader.fromTime;
+	    other.toTime = reader.toTime;
+	    long index = 0;
+	    boolean more, otherMore;
+	    while ((more = reader.next()) & (otherMore = other.next()))
+	    {
+		if ((reader.time != other.time) || (reader.kind != other.kind) ||
+		    (reader.object != other.object) || (reader.packet != other.packet))
+		    break;
+		index++;
+	    }
+	    if (!more && !otherMore)
+		System.out.println("Traces are identical ("+index+" records)");
+	    else
+	    {
+		System.out.println("Traces differ at record "+index);
+		System.out.println("< "+(more? reader.record():"end of trace"));
+		System.out.println("> "+(otherMore? other.record():"end of trace"));
+	    }
+	    return;
+	}
+
+	if (count)
+	{
+	    TreeMap counts = new TreeMap();
+	    long total = 0;
+	    while (reader.next())
+	    {
+		Integer key = new Integer(reader.kind);
+		long[] kindCount = (long[]) counts.get(key);
+		if (kindCount == null)
+		    counts.put(key, kindCount = new long[1]);
+		kindCount[0]++;
+		total++;
+	    }
+	    for (Iterator i = counts.entrySet().iterator(); i.hasNext(); )
+	    {
+		Map.Entry entry = (Map.Entry) i.next();
+		System.out.println(reader.kindName(((Integer) entry.getKey()).intValue())+
+				   "\t"+((long[]) entry.getValue())[0]);
+	    }
+	    System.out.println("Total\t"+total);
+	    return;
+	}
+
+	PrintStream output = new PrintStream(new BufferedOutputStream(System.out, 1 << 16));
+	while (reader.next())
+	    output.println(reader.record());
+	output.flush();
+    }
+
+    public String toString()
+    {
+	return "TraceReader";
+    }
+}
@@ -0,0 +1,273 @@
+package simulation.eventbased.trace;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import simulation.eventbased.*;
+import simulation.eventbased.mediumaccess.*;
+import simulation.communications.packets.*;
+import simulation.networks.*;
+
+/** Binary trace of events run by a simulator.
+ * Each event (or timer fired) is written as a fixed-width record of 
+ * {@link #recordSize} bytes: time (double), kind (int), object id (int)
+ * and packet id (long, -1 if none).  Events identified by string 
+ * reference are given negative kinds, from -2 downwards.  Records are 
+ * written to a ring of memory-mapped files, named with the prefix and 
+ * the index of the file in ring, e.g., trace.000, trace.001, etc.  
+ * When the ring is full, the oldest file is overwritten, and so the 
+ * trace keeps the latest events.  Names of objects and string events 
+ * are written to a text file (prefix.names) when the trace is closed.
+ * Files of a previous trace with the same prefix are removed.
+ * <BR>
+ * Nodes of a network can be registered first, so that their ids are 
+ * their indices in the network.  Other objects and packets are given 
+ * ids in the order they first appear.
+ * @see TraceReader
+ * @see Simulator#observer
+ * @author ykk
+ */
+public class TraceWriter
+    implements EventObserver
+{
+    //Members
+    /** Size of record (in bytes).
+     */
+    public static final int recordSize = 24;
+    /** Size of header of each file (in bytes).
+     * Header has magic number (int), record size (int), sequence of 
+     * file in trace (long) and number of records in file (long).
+     */
+    public static final int headerSize = 24;
+    /** Magic number of trace files.
+     */
+    public static final int magic = 0x45565452;
+    /** Prefix of trace files.
+     */
+    public String prefix;
+    /** Number of files in ring.
+     */
+    public int files;
+    /** Size of each file (in bytes).
+     */
+    public long fileSize;
+    /** Buffer of current file.
+     */
+    private MappedByteBuffer buffer;
+    /** Sequence of current file.
+     */
+    private long sequence = -1;
+    /** Number of records in current file.
+     */
+    private long count;
+    /** Map of object to id.
+     */
+    private IdentityHashMap objectIds = new IdentityHashMap();
+    /** Objects in order of id.
+     */
+    private Vector objects = new Vector();
+    /** Map of string event to kind.
+     */
+    private IdentityHashMap eventKinds = new IdentityHashMap();
+    /** Map of packet to id, without keeping packets from being collected.
+     */
+    private WeakHashMap packetIds = new WeakHashMap();
+    /** Id of next packet.
+     */
+    private long nextPacketId = 0;
+
+    //Methods
+    /** Constructor.
+     * Uses a ring of 16 files of 64 MB.
+     * @param prefix prefix of trace files
+     */
+    public TraceWriter(String prefix)
+    {
+	this(prefix, 16, 64L << 20);
+    }
+
+    /** Constructor.
+     * @param prefix prefix of trace files
+     * @param files number of files in ring
+     * @param fileSize size of each file (in bytes)
+     */
+    public TraceWriter(String prefix, int files, long fileSize)
+    {
+	if (fileSize < headerSize+recordSize)
+	    throw new RuntimeException(this+" requires files of at least "+
+				       (headerSize+recordSize)+" bytes");
+	this.prefix = prefix;
+	this.files = files;
+	this.fileSize = fileSize;
+	//Remove files of previous trace of same prefix
+	for (int index = 0; new File(filename(prefix, index)).delete(); index++);
+	nextFile();
+    }
+
+    /** Register nodes of network, so that their ids are their indices.
+     * Must be called before any event is traced.
+     * @param network network to register
+     */
+    public void register(Network network)
+    {
+	for (int i = 0; i < network.nodes.size(); i++)
+	    idOf(network.nodes.get(i));
+    }
+
+    /** Trace event run.
+     * @param event event run
+     * @param simulator simulator running event
+     */
+    public void eventRun(Event event, Simulator simulator)
+    {
+	int kind = event.kind;
+	if (kind == Event.untyped)
+	{
+	    Integer eventKind = (Integer) eventKinds.get(event.event);
+	    if (eventKind == null)
+	    {
+		eventKind = new Integer(-2-eventKinds.size());
+		eventKinds.put(event.event, eventKind);
+	    }
+	    kind = eventKind.intValue();
+	}
+	write(event.time, kind, idOf(event.object), packetId(event.payload));
+    }
+
+    /** Trace timer fired.
+     * @param timer timer fired
+     * @param time time timer is fired at
+     * @param simulator simulator firing timer
+     */
+    public void timerFired(EventTimer timer, double time, Simulator simulator)
+    {
+	write(time, timer.kind, idOf(timer.object), -1);
+    }
+
+    /** Write record.
+     * @param time time of event
+     * @param kind kind of event
+     * @param object id of object
+     * @param packet id of packet
+     */
+    public void write(double time, int kind, int object, long packet)
+    {
+	if (buffer.remaining() < recordSize)
+	    nextFile();
+	buffer.putDouble(time);
+	buffer.putInt(kind);
+	buffer.putInt(object);
+	buffer.putLong(packet);
+	buffer.putLong(16, ++count);
+    }
+
+    /** Return id of object, giving it one if it has none.
+     * @param object object
+     * @return id of object
+     */
+    private int idOf(Object object)
+    {
+	Integer id = (Integer) objectIds.get(object);
+	if (id == null)
+	{
+	    id = new Integer(objects.size());
+	    objectIds.put(object, id);
+	    objects.add(object);
+	}
+	return id.intValue();
+    }
+
+    /** Return id of packet in payload, if any.
+     * @param payload payload of event
+     * @return id of packet; -1 if there is none
+     */
+    protected long packetId(Object payload)
+    {
+	if (payload instanceof Reception)
+	    payload = ((Reception) payload).packet;
+	if (!(payload instanceof Packet))
+	    return -1;
+
+	Long id = (Long) packetIds.get(payload);
+	if (id == null)
+	{
+	    id = new Long(nextPacketId++);
+	    packetIds.put(payload, id);
+	}
+	return id.longValue();
+    }
+
+    /** Map next file of ring, and write its header.
+     */
+    private void nextFile()
+    {
+	if (buffer != null)
+	    buffer.force();
+	sequence++;
+	String filename = filename(prefix, (int) (sequence % files));
+	try
+	{
+	    RandomAccessFile file = new RandomAccessFile(filename, "rw");
+	    try
+	    {
+		file.setLength(fileSize);
+		buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE,
+					       0, fileSize);
+	    }
+	    finally
+	    {
+		file.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException(this+" fails to map "+filename+": "+e);
+	}
+	count = 0;
+	buffer.putInt(magic);
+	buffer.putInt(recordSize);
+	buffer.putLong(sequence);
+	buffer.putLong(count);
+    }
+
+    /** Close trace, writing names of objects and string events.
+     */
+    public void close()
+    {
+	buffer.force();
+	String filename = prefix+".names";
+	try
+	{
+	    PrintWriter names = new PrintWriter(new BufferedWriter(new FileWriter(filename)));
+	    for (int i = 0; i < objects.size(); i++)
+		names.println("object\t"+i+"\t"+objects.get(i));
+	    for (Iterator i = eventKinds.entrySet().iterator(); i.hasNext(); )
+	    {
+		Map.Entry entry = (Map.Entry) i.next();
+		names.println("event\t"+entry.getValue()+"\t"+entry.getKey());
+	    }
+	    names.close();
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException(this+" fails to write "+filename+": "+e);
+	}
+    }
+
+    /** Return name of trace file.
+     * @param prefix prefix of trace files
+     * @param index index of file in ring
+     * @return name of file
+     */
+    public static String filename(String prefix, int index)
+    {
+	String number = "00"+index;
+	return prefix+"."+number.substring(Math.min(number.length()-3, 2));
+    }
+
+    public String toString()
+    {
+	return "TraceWriter of "+prefix;
+    }
+}
@@ -0,0 +1,77 @@
+package simulation.math.probability;
+
+/** Class to calculate quantiles of the standard normal and 
+ * Student's t-distribution, e.g., for confidence intervals.
+ * @author ykk
+ */
+public class StudentT
+{
+    //Members
+    /** Coefficients of rational approximation of normal quantile (central region).
+     */
+    private static final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02,
+				       -2.759285104469687e+02, 1.383577518672690e+02,
+				       -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02,
+				       -1.556989798598866e+02, 6.680131188771972e+01,
+				       -1.328068155288572e+01};
+    /** Coefficients of rational approximation of normal quantile (tails).
+     */
+    private static final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01,
+				       -2.400758277161838e+00, -2.549732539343734e+00,
+				       4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] d = {7.784695709041462e-03, 3.224671290700398e-01,
+				       2.445134137142996e+00, 3.754408661907416e+00};
+
+    //Methods
+    /** Return quantile of standard normal distribution.
+     * Uses rational approximation by Acklam, with relative error
+     * less than 1.15e-9.
+     * @param p probability, in (0,1)
+     * @return x such that P(X &lt;= x) = p
+     */
+    public static double normalQuantile(double p)
+    {
+	if ((p <= 0) || (p >= 1))
+	    throw new RuntimeException("Probability "+p+" is not in (0,1)");
+
+	double q, r;
+	if (p < 0.02425)
+	{
+	    q = Math.sqrt(-2*Math.log(p));
+	    return (((((c[0]*q+c[1])*q+c[2])*q+c[3])*q+c[4])*q+c[5])/
+		((((d[0]*q+d[1])*q+d[2])*q+d[3])*q+1);
+	}
+	if (p > 1-0.02425)
+	    return -normalQuantile(1-p);
+
+	q = p-0.5;
+	r = q*q;
+	return (((((a[0]*r+a[1])*r+a[2])*r+a[3])*r+a[4])*r+a[5])*q/
+	    (((((b[0]*r+b[1])*r+b[2])*r+b[3])*r+b[4])*r+1);
+    }
+
+    /** Return quantile of Student's t-distribution.
+     * Exact for 1 and 2 degrees of freedom, else uses the 
+     * Cornish-Fisher expansion about the normal quantile 
+     * (Abramowitz and Stegun 26.7.5).
+     * @param p probability, in (0,1)
+     * @param dof degrees of freedom
+     * @return x such that P(T &lt;= x) = p
+     */
+    public static double quantile(double p, double dof)
+    {
+	if (dof == 1)
+	    return Math.tan(Math.PI*(p-0.5));
+	if (dof == 2)
+	    return (2*p-1)/Math.sqrt(2*p*(1-p));
+
+	double x = normalQuantile(p);
+	double x2 = x*x;
+	double g1 = (x2+1)*x/4;
+	double g2 = ((5*x2+16)*x2+3)*x/96;
+	double g3 = (((3*x2+19)*x2+17)*x2-15)*x/384;
+	double g4 = ((((79*x2+776)*x2+1482)*x2-1920)*x2-945)*x/92160;
+	return x+g1/dof+g2/(dof*dof)+g3/(dof*dof*dof)+g4/(dof*dof*dof*dof);
+    }
+}
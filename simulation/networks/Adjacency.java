@@ -0,0 +1,186 @@
+package simulation.networks;
+
+import simulation.networks.nodes.*;
+import java.util.*;
+
+/** Frozen adjacency of a network, in compressed sparse row form.
+ * Nodes are given dense integer ids, their index in the vector of nodes,
+ * and the partners of each node are kept as a sorted row of ids, so that
+ * checking a link takes a binary search over the row.
+ * The partner vectors of nodes remain the reference, and the adjacency
+ * is a snapshot of them, rebuilt by {@link Network#freeze()} when they
+ * change.
+ * @see Node#isTransmitPartner(Node destination)
+ * @author ykk
+ */
+public class Adjacency
+    implements java.io.Serializable
+{
+    //Members
+    /** Nodes, by id.
+     */
+    public Node[] nodes;
+    /** Index of first transmit partner of each node in 
+     * {@link #transmitIds}, with an extra entry at the end.
+     */
+    public int[] transmitStart;
+    /** Id of transmit partners, by node and in ascending order.
+     */
+    public int[] transmitIds;
+    /** Index of first receive partner of each node in 
+     * {@link #receiveIds}, with an extra entry at the end.
+     * Same array as {@link #transmitStart} if all partner vectors are 
+     * shared.
+     */
+    public int[] receiveStart;
+    /** Id of receive partners, by node and in ascending order.
+     * Same array as {@link #transmitIds} if all partner vectors are 
+     * shared.
+     */
+    public int[] receiveIds;
+
+    //Methods
+    /** Constructor.
+     * Ids of nodes are set to their index.
+     * @param nodes vector of nodes
+     */
+    public Adjacency(Vector nodes)
+    {
+	int n = nodes.size();
+	this.nodes = new Node[n];
+	boolean shared = true;
+	for (int i = 0; i < n; i++)
+	{
+	    this.nodes[i] = (Node) nodes.get(i);
+	    this.nodes[i].id = i;
+	    shared = shared && 
+		(this.nodes[i].transmitPartners == this.nodes[i].receivePartners);
+	}
+
+	transmitStart = new int[n+1];
+	transmitIds = rows(true, transmitStart);
+	if (shared)
+	{
+	    receiveStart = transmitStart;
+	    receiveIds = transmitIds;
+	}
+	else
+	{
+	    receiveStart = new int[n+1];
+	    receiveIds = rows(false, receiveStart);
+	}
+    }
+
+    /** Constructor, from rows already built, e.g., read from a
+     * {@link TopologySnapshot}.
+     * Ids of nodes are set to their index.
+     * @param nodes nodes, by id
+     * @param transmitStart index of first transmit partner of each node
+     * @param transmitIds id of transmit partners, sorted by node
+     * @param receiveStart index of first receive partner of each node
+     * @param receiveIds id of receive partners, sorted by node
+     */
+    public Adjacency(Node[] nodes, int[] transmitStart, int[] transmitIds,
+		     int[] receiveStart, int[] receiveIds)
+    {
+	this.nodes = nodes;
+	for (int i = 0; i < nodes.length; i++)
+	    nodes[i].id = i;
+	this.transmitStart = transmitStart;
+	this.transmitIds = transmitIds;
+	this.receiveStart = receiveStart;
+	this.receiveIds = receiveIds;
+    }
+
+    /** Build rows of partners.
+     * @param transmit if transmit partners, else receive partners
+     * @param start array to fill with start of each row
+     * @return ids of partners
+     */
+    private int[] rows(boolean transmit, int[] start)
+    {
+	Vector partners;
+	for (int i = 0; i < nodes.length; i++)
+	{
+	    partners = transmit? nodes[i].transmitPartners:nodes[i].receivePartners;
+	    start[i+1] = start[i]+((partners == null)? 0:partners.size());
+	}
+
+	int[] ids = new int[start[nodes.length]];
+	for (int i = 0; i < nodes.length; i++)
+	{
+	    partners = transmit? nodes[i].transmitPartners:nodes[i].receivePartners;
+	    for (int j = start[i]; j < start[i+1]; j++)
+		ids[j] = ((Node) partners.get(j-start[i])).id;
+	    Arrays.sort(ids, start[i], start[i+1]);
+	}
+	return ids;
+    }
+
+    /** Check if source can transmit to destination.
+     * @param source id of source
+     * @param destination id of destination
+     * @return if destination is a transmit partner of source
+     */
+    public boolean transmits(int source, int destination)
+    {
+	return (find(transmitIds, transmitStart[source], 
+		     transmitStart[source+1], destination) != -1);
+    }
+
+    /** Check if destination can receive from source.
+     * @param destination id of destination
+     * @param source id of source
+     * @return if source is a receive partner of destination
+     */
+    public boolean receives(int destination, int source)
+    {
+	return (find(receiveIds, receiveStart[destination], 
+		     receiveStart[destination+1], source) != -1);
+    }
+
+    /** Return index of link from source to destination in 
+     * {@link #transmitIds}, e.g., to keep values by link.
+     * @param source id of source
+     * @param destination id of destination
+     * @return index of link, -1 if no link
+     */
+    public int transmitLink(int source, int destination)
+    {
+	return find(transmitIds, transmitStart[source], 
+		    transmitStart[source+1], destination);
+    }
+
+    /** Return number of transmit partners of node.
+     * @param node id of node
+     * @return number of transmit partners
+     */
+    public int degree(int node)
+    {
+	return transmitStart[node+1]-transmitStart[node];
+    }
+
+    /** Binary search for id in a sorted row.
+     * @param ids array of rows
+     * @param from start of row
+     * @param to end of row, exclusive
+     * @param id id to search for
+     * @return index of id, -1 if id is not in row
+     */
+    private static int find(int[] ids, int from, int to, int id)
+    {
+	int mid;
+	to--;
+	while (from <= to)
+	{
+	    mid = (from+to) >>> 1;
+	    if (ids[mid] < id)
+		from = mid+1;
+	    else if (ids[mid] > id)
+		to = mid-1;
+	    else
+		return mid;
+	}
+	return -1;
+    }
+}
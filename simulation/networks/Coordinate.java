@@ -6,7 +6,7 @@ import simulation.files.images.*;
  * @author ykk
  */
 public class Coordinate
-    implements Positionable
+    implements Positionable, java.io.Serializable
 {
     //Members
     /** Position in x coordinate.
@@ -42,7 +42,7 @@ public class Coordinate
      */
     public double distance(Coordinate coordinate)
     {
-	return Math.sqrt(Math.pow(this.x-coordinate.x,2.0)+Math.pow(this.y-coordinate.y,2.0));
+	return Geometry.distance(x, y, coordinate.x, coordinate.y);
     }
 
     /** Provide string representation.
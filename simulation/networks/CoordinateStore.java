@@ -0,0 +1,135 @@
+package simulation.networks;
+
+import java.util.*;
+
+/** Store of coordinates as arrays of x and y coordinates, in place of a 
+ * vector of {@link Coordinate}.
+ * @see simulation.networks.pointprocesses.PointProcess#getStore(NetworkArea netArea)
+ * @see Geometry
+ * @author ykk
+ */
+public class CoordinateStore
+    implements java.io.Serializable
+{
+    //Members
+    /** Number of coordinates.
+     */
+    public int size = 0;
+    /** x coordinates.
+     */
+    public double[] x;
+    /** y coordinates.
+     */
+    public double[] y;
+
+    //Methods
+    /** Constructor.
+     * @param capacity initial number of coordinates that can be held
+     */
+    public CoordinateStore(int capacity)
+    {
+	x = new double[Math.max(1, capacity)];
+	y = new double[x.length];
+    }
+
+    /** Constructor, from arrays of coordinates.
+     * @param x x coordinates
+     * @param y y coordinates, as many as x coordinates
+     */
+    public CoordinateStore(double[] x, double[] y)
+    {
+	this.x = x;
+	this.y = y;
+	size = x.length;
+    }
+
+    /** Constructor, from vector of coordinates.
+     * @param coordinates vector of {@link Coordinate}
+     */
+    public CoordinateStore(Vector coordinates)
+    {
+	this(coordinates.size());
+	Coordinate coordinate;
+	for (int i = 0; i < coordinates.size(); i++)
+	{
+	    coordinate = (Coordinate) coordinates.get(i);
+	    add(coordinate.x, coordinate.y);
+	}
+    }
+
+    /** Read coordinates of nodes, replacing those in store.
+     * @param nodes vector of {@link Coordinate}, e.g., nodes
+     */
+    public void read(Vector nodes)
+    {
+	size = 0;
+	ensureCapacity(nodes.size());
+	Coordinate coordinate;
+	for (int i = 0; i < nodes.size(); i++)
+	{
+	    coordinate = (Coordinate) nodes.get(i);
+	    x[i] = coordinate.x;
+	    y[i] = coordinate.y;
+	}
+	size = nodes.size();
+    }
+
+    /** Add coordinate.
+     * @param x x coordinate
+     * @param y y coordinate
+     */
+    public void add(double x, double y)
+    {
+	if (size == this.x.length)
+	    ensureCapacity(Math.max(1, 2*size));
+	this.x[size] = x;
+	this.y[size] = y;
+	size++;
+    }
+
+    /** Add all coordinates of another store.
+     * @param store store of coordinates to add
+     */
+    public void addAll(CoordinateStore store)
+    {
+	ensureCapacity(size+store.size);
+	System.arraycopy(store.x, 0, x, size, store.size);
+	System.arraycopy(store.y, 0, y, size, store.size);
+	size += store.size;
+    }
+
+    /** Make sure the store can hold a number of coordinates.
+     * @param capacity number of coordinates
+     */
+    public void ensureCapacity(int capacity)
+    {
+	if (capacity <= x.length)
+	    return;
+	double[] old = x;
+	x = new double[capacity];
+	System.arraycopy(old, 0, x, 0, size);
+	old = y;
+	y = new double[capacity];
+	System.arraycopy(old, 0, y, 0, size);
+    }
+
+    /** Return coordinate.
+     * @param i index of coordinate
+     * @return new coordinate object
+     */
+    public Coordinate coordinate(int i)
+    {
+	return new Coordinate(x[i], y[i]);
+    }
+
+    /** Return coordinates as vector of {@link Coordinate}.
+     * @return vector of coordinates
+     */
+    public Vector toVector()
+    {
+	Vector coordinates = new Vector(size);
+	for (int i = 0; i < size; i++)
+	    coordinates.add(coordinate(i));
+	return coordinates;
+    }
+}
@@ -0,0 +1,155 @@
+package simulation.networks;
+
+/** Geometry kernel over coordinates packed in arrays of x and y, e.g., 
+ * of a {@link CoordinateStore}.
+ * Ranges are tested on squared distances, without square roots.  Batch
+ * functions take one point against many in plain counted loops without
+ * branches, which the JIT compiler can vectorize.
+ * @author ykk
+ */
+public class Geometry
+{
+    //Methods
+    /** No instance, only static functions.
+     */
+    private Geometry()
+    {
+    }
+
+    /** Return squared distance between two points.
+     * @param x1 x coordinate of first point
+     * @param y1 y coordinate of first point
+     * @param x2 x coordinate of second point
+     * @param y2 y coordinate of second point
+     * @return squared distance
+     */
+    public static double distanceSquared(double x1, double y1, double x2, double y2)
+    {
+	double dx = x1-x2, dy = y1-y2;
+	return dx*dx+dy*dy;
+    }
+
+    /** Return distance between two points.
+     * @param x1 x coordinate of first point
+     * @param y1 y coordinate of first point
+     * @param x2 x coordinate of second point
+     * @param y2 y coordinate of second point
+     * @return distance
+     */
+    public static double distance(double x1, double y1, double x2, double y2)
+    {
+	double dx = x1-x2, dy = y1-y2;
+	return Math.sqrt(dx*dx+dy*dy);
+    }
+
+    /** Check if two points are closer than range.
+     * Gives the same result as comparing {@link #distance} with range.
+     * Squared distance is compared first, and the square root is only
+     * taken for points about range apart, where rounding of the squares
+     * can differ from that of the distance.
+     * @param x1 x coordinate of first point
+     * @param y1 y coordinate of first point
+     * @param x2 x coordinate of second point
+     * @param y2 y coordinate of second point
+     * @param range range
+     * @return if distance is strictly less than range
+     */
+    public static boolean inRange(double x1, double y1, double x2, double y2, 
+				  double range)
+    {
+	double dx = x1-x2, dy = y1-y2;
+	double squared = dx*dx+dy*dy, rangeSquared = range*range;
+	if (squared < rangeSquared*(1-1e-9))
+	    return true;
+	if (squared > rangeSquared*(1+1e-9))
+	    return false;
+	return (Math.sqrt(squared) < range);
+    }
+
+    /** Compute squared distances from a point to a range of points.
+     * @param x x coordinate of point
+     * @param y y coordinate of point
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param from index of first point
+     * @param to index after last point
+     * @param result array to put squared distance to point i in, 
+     *               at i-from
+     */
+    public static void distancesSquared(double x, double y, double[] xs, double[] ys,
+					int from, int to, double[] result)
+    {
+	double dx, dy;
+	for (int i = from; i < to; i++)
+	{
+	    dx = xs[i]-x;
+	    dy = ys[i]-y;
+	    result[i-from] = dx*dx+dy*dy;
+	}
+    }
+
+    /** Compute distances from a point to a range of points.
+     * @param x x coordinate of point
+     * @param y y coordinate of point
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param from index of first point
+     * @param to index after last point
+     * @param result array to put distance to point i in, at i-from
+     */
+    public static void distances(double x, double y, double[] xs, double[] ys,
+				 int from, int to, double[] result)
+    {
+	distancesSquared(x, y, xs, ys, from, to, result);
+	for (int i = 0; i < to-from; i++)
+	    result[i] = Math.sqrt(result[i]);
+    }
+
+    /** Compute squared distances from a point to selected points.
+     * @param x x coordinate of point
+     * @param y y coordinate of point
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param indices index of points selected
+     * @param count number of points selected
+     * @param result array to put squared distance to j-th point 
+     *               selected in, at j
+     */
+    public static void distancesSquared(double x, double y, double[] xs, double[] ys,
+					int[] indices, int count, double[] result)
+    {
+	double dx, dy;
+	for (int j = 0; j < count; j++)
+	{
+	    dx = xs[indices[j]]-x;
+	    dy = ys[indices[j]]-y;
+	    result[j] = dx*dx+dy*dy;
+	}
+    }
+
+    /** Keep only selected points within reach of a point.
+     * Squared distances are computed in a batch first, and selected 
+     * points are then compacted in place, in the same order.
+     * @param x x coordinate of point
+     * @param y y coordinate of point
+     * @param xs x coordinates of points
+     * @param ys y coordinates of points
+     * @param indices index of points selected, compacted to those kept
+     * @param count number of points selected
+     * @param reach maximum distance of points kept (inclusive)
+     * @param buffer array of at least count entries to work in
+     * @return number of points kept
+     */
+    public static int filter(double x, double y, double[] xs, double[] ys,
+			     int[] indices, int count, double reach, 
+			     double[] buffer)
+    {
+	distancesSquared(x, y, xs, ys, indices, count, buffer);
+	double reachSquared = reach*reach;
+	int kept = 0;
+	for (int j = 0; j < count; j++)
+	    if (buffer[j] <= reachSquared)
+		indices[kept++] = indices[j];
+	return kept;
+    }
+}
@@ -0,0 +1,23 @@
+package simulation.networks;
+
+import simulation.networks.nodes.*;
+
+/** Interface for object to be told of links added and removed, as
+ * neighbors of nodes are updated.
+ * @see NeighborTracker
+ * @author ykk
+ */
+public interface LinkListener
+{
+    /** Link is added, i.e., source can now transmit to destination.
+     * @param source source node
+     * @param destination destination node
+     */
+    public void linkAdded(Node source, Node destination);
+
+    /** Link is removed, i.e., source can no longer transmit to destination.
+     * @param source source node
+     * @param destination destination node
+     */
+    public void linkRemoved(Node source, Node destination);
+}
@@ -0,0 +1,276 @@
+package simulation.networks;
+
+import simulation.networks.nodes.*;
+import simulation.networks.channels.*;
+import java.util.*;
+
+/** Incremental maintenance of neighbors of nodes as they move.
+ * Each node keeps a list of candidates, i.e., nodes within range plus 
+ * a skin distance.  As long as no node has moved more than half the 
+ * skin since the lists are built, nodes that are not candidates are out
+ * of range, so only candidates are checked on update.  Lists are 
+ * rebuilt with a {@link SpatialGrid} once a node moves further.
+ * <BR>
+ * Only nodes that moved since the last update, or with candidates that 
+ * moved, are checked.  Partner vectors of nodes are updated in place, 
+ * only for nodes whose links change, and kept in order of index as in 
+ * {@link Network#getNeighbors()}.  Links added and removed are told to
+ * {@link #listeners} once all nodes are updated.
+ * @see Network#trackNeighbors(double skin)
+ * @author ykk
+ */
+public class NeighborTracker
+    implements java.io.Serializable
+{
+    //Members
+    /** Network tracked.
+     */
+    public Network network;
+    /** Extra distance beyond range of candidates.
+     */
+    public double skin;
+    /** Vector of {@link LinkListener} told of links added and removed.
+     */
+    public Vector listeners = new Vector();
+    /** Number of times candidates are rebuilt.
+     */
+    public int rebuilds = 0;
+    /** Maximum range of channels.
+     */
+    protected double range;
+    /** Candidates of each node, in ascending order of index.
+     */
+    protected int[][] candidates;
+    /** Nodes each node can transmit to, in ascending order of index.
+     */
+    protected int[][] links;
+    /** x coordinate of nodes when candidates are built.
+     */
+    protected double[] lastX;
+    /** y coordinate of nodes when candidates are built.
+     */
+    protected double[] lastY;
+    /** x coordinate of nodes at last update.
+     */
+    protected double[] updateX;
+    /** y coordinate of nodes at last update.
+     */
+    protected double[] updateY;
+    /** Indicate if node moved since last update.
+     */
+    protected boolean[] moved;
+    /** Indicate if any partner vector changed in update.
+     */
+    protected boolean changed;
+    /** Links added in update, as source and destination pairs.
+     */
+    private Vector added = new Vector();
+    /** Links removed in update, as source and destination pairs.
+     */
+    private Vector removed = new Vector();
+    /** Buffer of links of node.
+     */
+    private int[] buffer = new int[0];
+
+    //Methods
+    /** Constructor.
+     * Neighbors of nodes are generated afresh.
+     * @param network network to track
+     * @param skin extra distance beyond range of candidates
+     */
+    public NeighborTracker(Network network, double skin)
+    {
+	this.network = network;
+	this.skin = skin;
+	reset();
+    }
+
+    /** Generate candidates and neighbors of all nodes afresh.
+     */
+    public void reset()
+    {
+	range = network.maxRange();
+	if (Double.isInfinite(range) || Double.isNaN(range))
+	    throw new RuntimeException(this+" requires channels with bounded range.");
+
+	int n = network.nodes.size();
+	links = new int[n][];
+	updateX = new double[n];
+	updateY = new double[n];
+	moved = new boolean[n];
+	rebuild();
+	for (int i = 0; i < n; i++)
+	{
+	    Node node = (Node) network.nodes.get(i);
+	    updateX[i] = node.x;
+	    updateY[i] = node.y;
+	    node.transmitPartners = new Vector();
+	    node.receivePartners = (node.channel instanceof SymmetryChannel)?
+		node.transmitPartners:new Vector();
+	    links[i] = new int[0];
+	    relink(i, false);
+	}
+	network.freeze();
+    }
+
+    /** Update neighbors of nodes after they move.
+     */
+    public void update()
+    {
+	int n = network.nodes.size();
+	if (n != links.length)
+	{
+	    reset();
+	    return;
+	}
+
+	//Rebuild candidates if any node moved more than half the skin
+	double maxMove = 0;
+	boolean anyMoved = false;
+	Node node;
+	for (int i = 0; i < n; i++)
+	{
+	    node = (Node) network.nodes.get(i);
+	    moved[i] = (node.x != updateX[i]) || (node.y != updateY[i]);
+	    anyMoved = anyMoved || moved[i];
+	    updateX[i] = node.x;
+	    updateY[i] = node.y;
+	    maxMove = Math.max(maxMove, (node.x-lastX[i])*(node.x-lastX[i])+
+			       (node.y-lastY[i])*(node.y-lastY[i]));
+	}
+	if (!anyMoved)
+	    return;
+	if (2*Math.sqrt(maxMove) >= skin)
+	    rebuild();
+
+	boolean record = !listeners.isEmpty();
+	changed = false;
+	for (int i = 0; i < n; i++)
+	    if (moved[i] || candidateMoved(i))
+		relink(i, record);
+	if (changed)
+	    network.freeze();
+
+	for (int i = 0; i < removed.size(); i += 2)
+	    for (int j = 0; j < listeners.size(); j++)
+		((LinkListener) listeners.get(j)).
+		    linkRemoved((Node) removed.get(i), (Node) removed.get(i+1));
+	for (int i = 0; i < added.size(); i += 2)
+	    for (int j = 0; j < listeners.size(); j++)
+		((LinkListener) listeners.get(j)).
+		    linkAdded((Node) added.get(i), (Node) added.get(i+1));
+	removed.clear();
+	added.clear();
+    }
+
+    /** Rebuild candidates of all nodes, for current coordinates.
+     */
+    protected void rebuild()
+    {
+	int n = network.nodes.size();
+	double reach = (range+skin)*(1+1e-9);
+	SpatialGrid grid = new SpatialGrid(network.nodes, reach);
+	int[] cells = new int[n];
+	double[] distances = new double[n];
+	int count, found;
+	Node node;
+
+	candidates = new int[n][];
+	lastX = new double[n];
+	lastY = new double[n];
+	for (int i = 0; i < n; i++)
+	{
+	    node = (Node) network.nodes.get(i);
+	    lastX[i] = node.x;
+	    lastY[i] = node.y;
+	}
+	for (int i = 0; i < n; i++)
+	{
+	    count = grid.candidates(i, cells);
+	    found = Geometry.filter(lastX[i], lastY[i], lastX, lastY, 
+				    cells, count, reach, distances);
+	    candidates[i] = new int[found];
+	    System.arraycopy(cells, 0, candidates[i], 0, found);
+	}
+	rebuilds++;
+    }
+
+    /** Check if any candidate of node moved since last update.
+     * @param i index of node
+     * @return if any candidate moved
+     */
+    private boolean candidateMoved(int i)
+    {
+	int[] candidate = candidates[i];
+	for (int j = 0; j < candidate.length; j++)
+	    if (moved[candidate[j]])
+		return true;
+	return false;
+    }
+
+    /** Check links of node with its candidates, and update its partner 
+     * vectors if links change.
+     * @param i index of node
+     * @param record if links added and removed are recorded
+     */
+    protected void relink(int i, boolean record)
+    {
+	Node node = (Node) network.nodes.get(i);
+	int[] candidate = candidates[i];
+	if (buffer.length < candidate.length)
+	    buffer = new int[candidate.length];
+
+	int count = 0;
+	for (int j = 0; j < candidate.length; j++)
+	    if (node.canTransmit((Node) network.nodes.get(candidate[j])))
+		buffer[count++] = candidate[j];
+
+	if (!(node.channel instanceof SymmetryChannel))
+	{
+	    changed = true;
+	    node.receivePartners.clear();
+	    for (int j = 0; j < candidate.length; j++)
+		if (node.canReceive((Node) network.nodes.get(candidate[j])))
+		    node.receivePartners.add(network.nodes.get(candidate[j]));
+	}
+
+	int[] old = links[i];
+	if (count == old.length)
+	{
+	    int j = 0;
+	    while (j < count && buffer[j] == old[j])
+		j++;
+	    if (j == count)
+		return;
+	}
+
+	//Record differences, both lists being in ascending order
+	if (record)
+	{
+	    int j = 0, k = 0;
+	    while (j < old.length || k < count)
+		if (k == count || (j < old.length && old[j] < buffer[k]))
+		{
+		    removed.add(node);
+		    removed.add(network.nodes.get(old[j++]));
+		}
+		else if (j == old.length || buffer[k] < old[j])
+		{
+		    added.add(node);
+		    added.add(network.nodes.get(buffer[k++]));
+		}
+		else
+		{
+		    j++;
+		    k++;
+		}
+	}
+
+	changed = true;
+	links[i] = new int[count];
+	System.arraycopy(buffer, 0, links[i], 0, count);
+	node.transmitPartners.clear();
+	for (int j = 0; j < count; j++)
+	    node.transmitPartners.add(network.nodes.get(links[i][j]));
+    }
+}
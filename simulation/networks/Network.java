@@ -13,6 +13,7 @@ import java.util.*;
  * @author ykk
  */
 public class Network
+    implements java.io.Serializable
 {
     //Members
     /** Vector to hold nodes.
@@ -28,6 +29,32 @@ public class Network
      */
     public NodeFactory nodeFactory;
 
+    /** Coordinates of nodes, by index of node, as last generated or 
+     * packed.
+     * Defaulted to null.
+     * @see #generateNodes(PointProcess pointProcess)
+     * @see #pack()
+     */
+    public CoordinateStore coordinates = null;
+
+    /** Incremental maintenance of neighbors, if any.
+     * Defaulted to null, i.e., neighbors are generated afresh.
+     * @see #trackNeighbors(double skin)
+     */
+    public NeighborTracker tracker = null;
+
+    /** Frozen adjacency of nodes.
+     * Defaulted to null.
+     * @see #freeze()
+     */
+    public Adjacency adjacency = null;
+
+    /** Index of nodes.
+     * Defaulted to null, i.e., created when first needed.
+     * @see #indexOf(Node node)
+     */
+    protected NodeIndex index = null;
+
     //Methods
     /** Empty constructor for extension.
      */
@@ -51,26 +78,141 @@ public class Network
     }
 
     /** Function to generate nodes.
+     * Coordinates are generated into {@link #coordinates}, in parallel
+     * if the point process can, before being given to the node factory.
      * @param pointProcess process to generate coordinates of nodes
+     * @see PointProcess#getStore(NetworkArea netArea)
      */
     public void generateNodes(PointProcess pointProcess)
     {
 	nodes.clear();
 
 	//Create nodes
-	Vector positions = pointProcess.getCoordinates(netArea);
-	for (int i = 0; i < positions.size(); i++)
-	    nodes.add(nodeFactory.newNode((Coordinate) positions.get(i)));
+	coordinates = pointProcess.getStore(netArea);
+	nodes.ensureCapacity(coordinates.size);
+	for (int i = 0; i < coordinates.size; i++)
+	{
+	    nodes.add(nodeFactory.newNode(coordinates.coordinate(i)));
+	    ((Node) nodes.get(i)).id = i;
+	}
+	if (index != null)
+	    index.clear();
+    }
+
+    /** Return index of node in {@link #nodes}.
+     * Takes constant time for nodes of this network, whose id is their
+     * index.
+     * @param node node to find
+     * @return index of node, -1 if not in network
+     * @see NodeIndex
+     */
+    public int indexOf(Node node)
+    {
+	if (index == null || index.nodes != nodes)
+	    index = new NodeIndex(nodes);
+	return index.indexOf(node);
     }
 
     /** Function to generate neighbors of nodes.
+     * If the channels of nodes have bounded range, only nodes in the same
+     * or adjacent cells of a {@link SpatialGrid} and within range by
+     * {@link Geometry#filter} are checked, else every pair of nodes is.
+     * Neighbors found are the same either way.
+     * @see Channel#maxRange()
      */
     public void getNeighbors()
     {
-	//Get neighbors
-	Node tmpNode;
+	double range = maxRange();
+	if (Double.isInfinite(range) || Double.isNaN(range))
+	{
+	    for (int j = 0; j < nodes.size(); j++)
+		((Node) nodes.get(j)).getNeighbors(nodes);
+	    freeze();
+	    return;
+	}
+
+	SpatialGrid grid = new SpatialGrid(nodes, range);
+	CoordinateStore store = pack();
+	int[] candidates = new int[nodes.size()];
+	double[] distances = new double[nodes.size()];
+	double reach = range*(1+1e-9);
+	int count;
+	for (int j = 0; j < nodes.size(); j++)
+	{
+	    count = grid.candidates(j, candidates);
+	    count = Geometry.filter(store.x[j], store.y[j], store.x, store.y, 
+				    candidates, count, reach, distances);
+	    ((Node) nodes.get(j)).getNeighbors(nodes, candidates, count);
+	}
+	freeze();
+    }
+
+    /** Freeze partner vectors of nodes into a compressed sparse row
+     * {@link Adjacency}, giving nodes dense ids.
+     * Done whenever neighbors are generated or updated here.  To be 
+     * called again if partner vectors are changed elsewhere.
+     * @return adjacency of nodes
+     * @see Node#isTransmitPartner(Node destination)
+     */
+    public Adjacency freeze()
+    {
+	adjacency = new Adjacency(nodes);
+	for (int j = 0; j < nodes.size(); j++)
+	    ((Node) nodes.get(j)).adjacency = adjacency;
+	return adjacency;
+    }
+
+    /** Pack current coordinates of nodes into {@link #coordinates}.
+     * @return coordinates of nodes
+     */
+    public CoordinateStore pack()
+    {
+	if (coordinates == null)
+	    coordinates = new CoordinateStore(nodes.size());
+	coordinates.read(nodes);
+	return coordinates;
+    }
+
+    /** Maintain neighbors incrementally as nodes move, instead of
+     * generating them afresh.
+     * @param skin extra distance beyond range of candidates checked
+     * @return tracker of neighbors
+     * @see #updateNeighbors()
+     */
+    public NeighborTracker trackNeighbors(double skin)
+    {
+	tracker = new NeighborTracker(this, skin);
+	return tracker;
+    }
+
+    /** Update neighbors of nodes after they move.
+     * Neighbors are updated incrementally if tracked, else generated
+     * afresh.
+     * @see #tracker
+     */
+    public void updateNeighbors()
+    {
+	if (tracker != null)
+	    tracker.update();
+	else
+	    getNeighbors();
+    }
+
+    /** Return maximum range of channels of nodes.
+     * @return maximum range, infinite if any is unbounded
+     */
+    public double maxRange()
+    {
+	double range = 0;
+	Channel channel = null;
 	for (int j = 0; j < nodes.size(); j++)
-	    ((Node) nodes.get(j)).getNeighbors(nodes);
+	    if (((Node) nodes.get(j)).channel != channel)
+	    {
+		channel = ((Node) nodes.get(j)).channel;
+		range = Math.max(range, (channel == null)? 
+				 Double.POSITIVE_INFINITY:channel.maxRange());
+	    }
+	return range;
     }
 
     /** Function to draw network.
@@ -125,6 +267,7 @@ public class Network
 		    j--;
 		}
 	}
+	freeze();
     }
 
     /** Function to test network by drawing it.
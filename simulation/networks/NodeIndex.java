@@ -0,0 +1,96 @@
+package simulation.networks;
+
+import simulation.networks.nodes.*;
+import java.util.*;
+
+/** Registry of index of nodes in a vector, in place of 
+ * {@link Vector#indexOf(Object)}.
+ * A node whose id is its index in the vector is found directly.  Other
+ * nodes, e.g., of another network or in a vector ordered otherwise, are 
+ * looked up in an identity map, built when first needed.  The map is 
+ * rebuilt if the vector changes size, or if an index from the map is not 
+ * that of the node in the vector, e.g., after nodes are replaced.
+ * As with {@link Vector#indexOf(Object)}, the map gives the first index
+ * of a node that is in the vector more than once.  Nodes added through
+ * {@link #add(Node)} are kept in the map as they come.
+ * @see Node#id
+ * @author ykk
+ */
+public class NodeIndex
+    implements java.io.Serializable
+{
+    //Members
+    /** Vector of nodes indexed.
+     */
+    public Vector nodes;
+    /** Map of node to index, for nodes not found by id.
+     * Defaulted to null, i.e., not yet built.
+     */
+    protected IdentityHashMap map = null;
+    /** Size of vector of nodes when map was last updated.
+     */
+    protected int mapped = -1;
+
+    //Methods
+    /** Constructor.
+     * @param nodes vector of nodes to index
+     */
+    public NodeIndex(Vector nodes)
+    {
+	this.nodes = nodes;
+    }
+
+    /** Return index of node.
+     * @param node node to find
+     * @return index of node, -1 if not found
+     */
+    public int indexOf(Node node)
+    {
+	int id = node.id;
+	if (id >= 0 && id < nodes.size() && nodes.get(id) == node)
+	    return id;
+
+	if (map == null || mapped != nodes.size())
+	    rebuild();
+	Integer index = (Integer) map.get(node);
+	if ((index != null) && (nodes.get(index.intValue()) != node))
+	{
+	    rebuild();
+	    index = (Integer) map.get(node);
+	}
+	return (index == null)? -1:index.intValue();
+    }
+
+    /** Build map of nodes to their first index afresh.
+     */
+    protected void rebuild()
+    {
+	map = new IdentityHashMap();
+	for (int i = nodes.size()-1; i >= 0; i--)
+	    map.put(nodes.get(i), new Integer(i));
+	mapped = nodes.size();
+    }
+
+    /** Add node to end of vector.
+     * @param node node to add
+     */
+    public void add(Node node)
+    {
+	nodes.add(node);
+	if (map != null && mapped == nodes.size()-1)
+	{
+	    if (!map.containsKey(node))
+		map.put(node, new Integer(mapped));
+	    mapped++;
+	}
+    }
+
+    /** Forget map of nodes, after the vector of nodes is changed other 
+     * than by {@link #add(Node)} or in size.
+     */
+    public void clear()
+    {
+	map = null;
+	mapped = -1;
+    }
+}
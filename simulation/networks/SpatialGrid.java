@@ -0,0 +1,152 @@
+package simulation.networks;
+
+import simulation.networks.nodes.*;
+import java.util.*;
+
+/** Uniform grid of cells over nodes, to find nodes within range without
+ * checking every pair.
+ * Cells are squares at least as large as the range, so that nodes 
+ * within range of each other are in the same or adjacent cells.
+ * Nodes of each cell are kept in order of index in the vector of nodes.
+ * @see simulation.networks.channels.Channel#maxRange()
+ * @author ykk
+ */
+public class SpatialGrid
+    implements java.io.Serializable
+{
+    //Members
+    /** Length of side of cell.
+     */
+    public double cellSize;
+    /** Minimum x coordinate of grid.
+     */
+    public double minX;
+    /** Minimum y coordinate of grid.
+     */
+    public double minY;
+    /** Number of columns of cells.
+     */
+    public int columns;
+    /** Number of rows of cells.
+     */
+    public int rows;
+    /** Range grid is built for.
+     */
+    protected double range;
+    /** Index of first node of each cell in {@link #cellNodes}, 
+     * with an extra entry at the end.
+     */
+    protected int[] cellStart;
+    /** Index of nodes, by cell.
+     */
+    protected int[] cellNodes;
+    /** Cell of each node.
+     */
+    protected int[] cellOf;
+
+    //Methods
+    /** Constructor.
+     * @param nodes vector of nodes
+     * @param range maximum range between nodes to find
+     */
+    public SpatialGrid(Vector nodes, double range)
+    {
+	this.range = range;
+	rebuild(nodes);
+    }
+
+    /** Rebuild grid for current coordinates of nodes.
+     * Bounds of grid are those of the nodes.  Cells are enlarged if 
+     * needed to keep the number of cells within twice the number of
+     * nodes.
+     * @param nodes vector of nodes
+     */
+    public void rebuild(Vector nodes)
+    {
+	int n = nodes.size();
+	double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+	minX = Double.POSITIVE_INFINITY;
+	minY = Double.POSITIVE_INFINITY;
+	Coordinate node;
+	for (int i = 0; i < n; i++)
+	{
+	    node = (Coordinate) nodes.get(i);
+	    minX = Math.min(minX, node.x);
+	    maxX = Math.max(maxX, node.x);
+	    minY = Math.min(minY, node.y);
+	    maxY = Math.max(maxY, node.y);
+	}
+
+	//Slightly larger than range, against rounding at cell edges
+	cellSize = range*(1+1e-9);
+	if (n == 0 || cellSize <= 0)
+	    cellSize = 1;
+	double width = Math.max(maxX-minX, 0), height = Math.max(maxY-minY, 0);
+	while ((Math.floor(width/cellSize)+1)*(Math.floor(height/cellSize)+1) > 2.0*n+1)
+	    cellSize *= 2;
+	columns = (n == 0)? 1:(int) Math.floor(width/cellSize)+1;
+	rows = (n == 0)? 1:(int) Math.floor(height/cellSize)+1;
+
+	//Counting sort of nodes by cell, in order of index
+	cellOf = new int[n];
+	cellStart = new int[columns*rows+1];
+	cellNodes = new int[n];
+	for (int i = 0; i < n; i++)
+	{
+	    node = (Coordinate) nodes.get(i);
+	    cellOf[i] = cell(node.x, node.y);
+	    cellStart[cellOf[i]+1]++;
+	}
+	for (int c = 0; c < columns*rows; c++)
+	    cellStart[c+1] += cellStart[c];
+	int[] fill = new int[columns*rows];
+	for (int i = 0; i < n; i++)
+	    cellNodes[cellStart[cellOf[i]]+fill[cellOf[i]]++] = i;
+    }
+
+    /** Return cell of coordinate.
+     * Coordinates outside the grid are put in the cell at its edge.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return index of cell
+     */
+    public int cell(double x, double y)
+    {
+	int column = (int) Math.min(columns-1, Math.max(0, Math.floor((x-minX)/cellSize)));
+	int row = (int) Math.min(rows-1, Math.max(0, Math.floor((y-minY)/cellSize)));
+	return column+row*columns;
+    }
+
+    /** Return cell of node.
+     * @param node index of node
+     * @return index of cell
+     */
+    public int cellOf(int node)
+    {
+	return cellOf[node];
+    }
+
+    /** Find nodes in the cell of a node and adjacent cells, i.e., nodes
+     * that can be within range of it.
+     * Node itself is included.
+     * @param node index of node
+     * @param candidates array to put index of nodes found in, at least
+     *                   as long as the number of nodes
+     * @return number of nodes found, in ascending order of index
+     */
+    public int candidates(int node, int[] candidates)
+    {
+	int column = cellOf[node]%columns, row = cellOf[node]/columns;
+	int count = 0, c;
+	for (int r = Math.max(0, row-1); r <= Math.min(rows-1, row+1); r++)
+	    for (int col = Math.max(0, column-1); 
+		 col <= Math.min(columns-1, column+1); col++)
+	    {
+		c = col+r*columns;
+		for (int i = cellStart[c]; i < cellStart[c+1]; i++)
+		    candidates[count++] = cellNodes[i];
+	    }
+	Arrays.sort(candidates, 0, count);
+	return count;
+    }
+}
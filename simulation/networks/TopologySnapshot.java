@@ -0,0 +1,269 @@
+package simulation.networks;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import simulation.networks.nodes.*;
+import simulation.communications.channels.data.*;
+
+/** Binary snapshot of the topology of a network, i.e., coordinates of
+ * nodes and its frozen {@link Adjacency}, with reception probabilities 
+ * of links if a channel map is given.  A scenario can then be reloaded
+ * without generating nodes, neighbors and channel maps again.
+ * <BR>
+ * The file has a header of {@link #headerSize} bytes: magic number 
+ * (int), version (int), number of nodes (int), number of transmit 
+ * links (int), number of receive links (int, -1 if partner vectors are 
+ * shared) and if probabilities are included (int, 0 or 1), followed by
+ * x and y coordinates (double), probabilities by transmit link (double),
+ * start and ids of transmit partners (int), and start and ids of 
+ * receive partners (int) if not shared.  The file is written and read 
+ * through memory-mapped buffers, and probabilities are read in place.
+ * @see LinkChannelMap
+ * @author ykk
+ */
+public class TopologySnapshot
+{
+    //Members
+    /** Magic number of snapshot files.
+     */
+    public static final int magic = 0x544f504f;
+    /** Version of format written.
+     */
+    public static final int version = 1;
+    /** Size of header (in bytes).
+     */
+    public static final int headerSize = 24;
+    /** Buffer of file read.
+     */
+    private ByteBuffer buffer;
+    /** Number of nodes.
+     */
+    public int nodes;
+    /** Number of transmit links.
+     */
+    public int transmitLinks;
+    /** Number of receive links, -1 if partner vectors are shared.
+     */
+    public int receiveLinks;
+    /** Indicate if probabilities of links are included.
+     */
+    public boolean hasProbabilities;
+
+    //Methods
+    /** Constructor, mapping snapshot file to read.
+     * @param filename name of file
+     */
+    public TopologySnapshot(String filename)
+    {
+	try
+	{
+	    FileChannel channel = new RandomAccessFile(filename, "r").getChannel();
+	    try
+	    {
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+	    }
+	    finally
+	    {
+		channel.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException(this+" fails to map "+filename+": "+e);
+	}
+
+	if (buffer.getInt(0) != magic)
+	    throw new RuntimeException(this+" finds "+filename+" not a snapshot file");
+	if (buffer.getInt(4) != version)
+	    throw new RuntimeException(this+" cannot read version "+buffer.getInt(4)+
+				       " of "+filename);
+	nodes = buffer.getInt(8);
+	transmitLinks = buffer.getInt(12);
+	receiveLinks = buffer.getInt(16);
+	hasProbabilities = (buffer.getInt(20) != 0);
+    }
+
+    /** Write snapshot of network to file.
+     * Adjacency of network is frozen first if it is not.
+     * @param filename name of file
+     * @param network network to take snapshot of
+     * @param map channel map to take probabilities of links from, 
+     *            null if none
+     */
+    public static void write(String filename, Network network, ChannelMap map)
+    {
+	Adjacency adjacency = (network.adjacency == null)? 
+	    network.freeze():network.adjacency;
+	int n = adjacency.nodes.length;
+	int transmitLinks = adjacency.transmitIds.length;
+	boolean shared = (adjacency.receiveIds == adjacency.transmitIds);
+	int receiveLinks = shared? -1:adjacency.receiveIds.length;
+	long size = headerSize+8L*(2*n+((map == null)? 0:transmitLinks))+
+	    4L*(n+1+transmitLinks)+(shared? 0:4L*(n+1+receiveLinks));
+
+	try
+	{
+	    RandomAccessFile file = new RandomAccessFile(filename, "rw");
+	    try
+	    {
+		file.setLength(size);
+		MappedByteBuffer buffer = file.getChannel().
+		    map(FileChannel.MapMode.READ_WRITE, 0, size);
+		buffer.putInt(magic);
+		buffer.putInt(version);
+		buffer.putInt(n);
+		buffer.putInt(transmitLinks);
+		buffer.putInt(receiveLinks);
+		buffer.putInt((map == null)? 0:1);
+
+		for (int i = 0; i < n; i++)
+		    buffer.putDouble(adjacency.nodes[i].x);
+		for (int i = 0; i < n; i++)
+		    buffer.putDouble(adjacency.nodes[i].y);
+		if (map != null)
+		    for (int i = 0; i < n; i++)
+			for (int j = adjacency.transmitStart[i]; j < adjacency.transmitStart[i+1]; j++)
+			    buffer.putDouble(map.channelProb(adjacency.nodes[i], 
+							     adjacency.nodes[adjacency.transmitIds[j]]));
+		putInts(buffer, adjacency.transmitStart);
+		putInts(buffer, adjacency.transmitIds);
+		if (!shared)
+		{
+		    putInts(buffer, adjacency.receiveStart);
+		    putInts(buffer, adjacency.receiveIds);
+		}
+		buffer.force();
+	    }
+	    finally
+	    {
+		file.close();
+	    }
+	}
+	catch (IOException e)
+	{
+	    throw new RuntimeException("TopologySnapshot fails to write "+filename+": "+e);
+	}
+    }
+
+    /** Put array of ints in buffer.
+     * @param buffer buffer to put in
+     * @param values values to put
+     */
+    private static void putInts(ByteBuffer buffer, int[] values)
+    {
+	buffer.asIntBuffer().put(values);
+	buffer.position(buffer.position()+4*values.length);
+    }
+
+    /** Get array of ints from buffer.
+     * @param position position in buffer (in bytes)
+     * @param length number of ints
+     * @return array of ints
+     */
+    private int[] getInts(int position, int length)
+    {
+	int[] values = new int[length];
+	ByteBuffer view = buffer.duplicate();
+	view.position(position);
+	view.asIntBuffer().get(values);
+	return values;
+    }
+
+    /** Get array of doubles from buffer.
+     * @param position position in buffer (in bytes)
+     * @param length number of doubles
+     * @return array of doubles
+     */
+    private double[] getDoubles(int position, int length)
+    {
+	double[] values = new double[length];
+	ByteBuffer view = buffer.duplicate();
+	view.position(position);
+	view.asDoubleBuffer().get(values);
+	return values;
+    }
+
+    /** Restore nodes of network and their neighbors from snapshot.
+     * Nodes are generated by the node factory of the network at the
+     * coordinates of the snapshot, and given partner vectors and a
+     * frozen adjacency from it.  The index of nodes of the network is
+     * cleared, and neighbors are no longer tracked, since the tracker
+     * refers to the nodes replaced.
+     * @param network network to restore, with node factory set
+     * @see Network#trackNeighbors(double skin)
+     */
+    public void restore(Network network)
+    {
+	int position = headerSize;
+	CoordinateStore store = new CoordinateStore(getDoubles(position, nodes),
+						    getDoubles(position+8*nodes, nodes));
+	position += 16*nodes+(hasProbabilities? 8*transmitLinks:0);
+	int[] transmitStart = getInts(position, nodes+1);
+	int[] transmitIds = getInts(position+4*(nodes+1), transmitLinks);
+	position += 4*(nodes+1+transmitLinks);
+	int[] receiveStart = transmitStart, receiveIds = transmitIds;
+	if (receiveLinks != -1)
+	{
+	    receiveStart = getInts(position, nodes+1);
+	    receiveIds = getInts(position+4*(nodes+1), receiveLinks);
+	}
+
+	Node[] nodeArray = new Node[nodes];
+	network.nodes.clear();
+	network.nodes.ensureCapacity(nodes);
+	for (int i = 0; i < nodes; i++)
+	{
+	    nodeArray[i] = network.nodeFactory.newNode(store.coordinate(i));
+	    network.nodes.add(nodeArray[i]);
+	}
+	for (int i = 0; i < nodes; i++)
+	{
+	    nodeArray[i].transmitPartners = partners(nodeArray, transmitStart, transmitIds, i);
+	    nodeArray[i].receivePartners = (receiveLinks == -1)? 
+		nodeArray[i].transmitPartners:
+		partners(nodeArray, receiveStart, receiveIds, i);
+	}
+
+	network.coordinates = store;
+	network.adjacency = new Adjacency(nodeArray, transmitStart, transmitIds,
+					  receiveStart, receiveIds);
+	for (int i = 0; i < nodes; i++)
+	    nodeArray[i].adjacency = network.adjacency;
+	if (network.index != null)
+	    network.index.clear();
+	network.tracker = null;
+    }
+
+    /** Build partner vector of node from rows.
+     * @param nodes nodes, by id
+     * @param start start of each row
+     * @param ids ids of partners
+     * @param node id of node
+     * @return vector of partners
+     */
+    private static Vector partners(Node[] nodes, int[] start, int[] ids, int node)
+    {
+	Vector partners = new Vector(start[node+1]-start[node]);
+	for (int j = start[node]; j < start[node+1]; j++)
+	    partners.add(nodes[ids[j]]);
+	return partners;
+    }
+
+    /** Return channel map of probabilities of links in snapshot, read in
+     * place from the mapped file.
+     * @param network network restored from snapshot
+     * @return channel map, null if snapshot has no probabilities
+     * @see #restore(Network network)
+     */
+    public ChannelMap channelMap(Network network)
+    {
+	if (!hasProbabilities)
+	    return null;
+	ByteBuffer view = buffer.duplicate();
+	view.position(headerSize+16*nodes);
+	view.limit(headerSize+16*nodes+8*transmitLinks);
+	return new LinkChannelMap(network, view.slice().asDoubleBuffer());
+    }
+}
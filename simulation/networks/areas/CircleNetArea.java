@@ -56,5 +56,9 @@ public class CircleNetArea
 	else
 	    return false;
     }
+
+    public boolean inArea(double x, double y)
+    {
+	return (Math.sqrt(x*x+y*y) <= radius);
+    }
 }
-   
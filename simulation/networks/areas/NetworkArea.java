@@ -6,6 +6,7 @@ import simulation.networks.*;
  * @author ykk
  */
 public abstract class NetworkArea
+    implements java.io.Serializable
 {
 
     /** Function to return minimum x-coordinate.
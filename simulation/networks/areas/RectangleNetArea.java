@@ -63,4 +63,13 @@ public class RectangleNetArea
 
 	return false;
     }
+
+    public boolean inArea(double x, double y)
+    {
+	if (x >= 0 && x <= maxX)
+	    if (y >= 0 && y <= maxY)
+		return true;
+
+	return false;
+    }
 }
@@ -6,6 +6,7 @@ import simulation.networks.nodes.*;
  * @author ykk
  */
 public abstract class Channel
+    implements java.io.Serializable
 {
     /** Check if source node can transmit directly to destination.
      * @param source source node
@@ -20,4 +21,14 @@ public abstract class Channel
      * @return if destination node can receive directly from source
      */
     public abstract boolean canReceive(Node destination, Node source);
+
+    /** Return maximum distance between nodes that can transmit to or
+     * receive from each other directly.
+     * Defaulted to infinite, i.e., range is not bounded.
+     * @return maximum range
+     */
+    public double maxRange()
+    {
+	return Double.POSITIVE_INFINITY;
+    }
 }
@@ -1,5 +1,6 @@
 package simulation.networks.channels;
 
+import simulation.networks.*;
 import simulation.networks.nodes.*;
 
 /** Class for a zero-one channel.
@@ -26,8 +27,15 @@ public class ZeroOne
     public boolean canCommunicate(Node source, Node destination)
     {
 	if (source == destination) return false;
-	return (Math.sqrt(Math.pow(source.x - destination.x,2.0)+
-			  Math.pow(source.y - destination.y,2.0))
-		< thresholdDistance);
+	return Geometry.inRange(source.x, source.y, destination.x, destination.y,
+				thresholdDistance);
     }   
+
+    /** Return maximum range, i.e., threshold distance.
+     * @return threshold distance
+     */
+    public double maxRange()
+    {
+	return thresholdDistance;
+    }
 }
@@ -36,7 +36,7 @@ public abstract class MobilityModel
 	for (int i = 0 ; i < network.nodes.size(); i++)
 	    moveNodeLoop((Node) network.nodes.get(i));
 
-	network.getNeighbors();
+	network.updateNeighbors();
     }
 
     /** Move node and loop around at edges.
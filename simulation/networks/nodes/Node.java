@@ -26,6 +26,17 @@ public class Node
     /** Channel used by the nodes.
      */
     public Channel channel;
+    /** Dense id of node in its network, i.e., its index.
+     * Defaulted to -1, i.e., not yet given.
+     * @see Network#freeze()
+     */
+    public int id = -1;
+    /** Frozen adjacency of network, if partner vectors are unchanged
+     * since.
+     * Defaulted to null.
+     * @see Network#freeze()
+     */
+    public Adjacency adjacency = null;
 
     //Methods
     /** Constructor to get a new node.
@@ -50,6 +61,7 @@ public class Node
     public void getNeighbors(Vector nodes)
     {
 	//Create vectors
+	adjacency = null;
 	transmitPartners = new Vector();
 	if (channel instanceof SymmetryChannel)
 	    receivePartners = transmitPartners;
@@ -70,6 +82,64 @@ public class Node
 	}
     }
 
+    /** Function to search for neighbors among candidates.
+     * As {@link #getNeighbors(Vector nodes)}, but only nodes at the given
+     * indices are checked.
+     * @param nodes vector of nodes that can be neighbors
+     * @param candidates index of nodes to check, in ascending order
+     * @param count number of candidates
+     * @see SpatialGrid#candidates(int node, int[] candidates)
+     */
+    public void getNeighbors(Vector nodes, int[] candidates, int count)
+    {
+	//Create vectors
+	adjacency = null;
+	transmitPartners = new Vector();
+	if (channel instanceof SymmetryChannel)
+	    receivePartners = transmitPartners;
+	else
+	    receivePartners = new Vector();
+	
+	//Find neighbors
+	Node tmpNode;
+	for (int i = 0; i < count; i++)
+	{
+	    tmpNode = (Node) nodes.get(candidates[i]);
+	    if (this.canTransmit(tmpNode))
+		transmitPartners.add(tmpNode);
+
+	    if (!(channel instanceof SymmetryChannel))
+		if (this.canReceive(tmpNode))
+		    receivePartners.add(tmpNode);
+	}
+    }
+
+    /** Check if a node is among the transmit partners.
+     * Takes a binary search over the frozen adjacency if both nodes are
+     * in it, else a scan of {@link #transmitPartners}.
+     * @param destination destination node
+     * @return if destination is a transmit partner
+     */
+    public boolean isTransmitPartner(Node destination)
+    {
+	if (adjacency != null && destination.adjacency == adjacency)
+	    return adjacency.transmits(id, destination.id);
+	return (transmitPartners.indexOf(destination) != -1);
+    }
+
+    /** Check if a node is among the receive partners.
+     * Takes a binary search over the frozen adjacency if both nodes are
+     * in it, else a scan of {@link #receivePartners}.
+     * @param source source node
+     * @return if source is a receive partner
+     */
+    public boolean isReceivePartner(Node source)
+    {
+	if (adjacency != null && source.adjacency == adjacency)
+	    return adjacency.receives(id, source.id);
+	return (receivePartners.indexOf(source) != -1);
+    }
+
     /** To check if it is able to transmit to a specified node.
      * @param destination destination node to transmit to
      * @return if able to transmit to destination
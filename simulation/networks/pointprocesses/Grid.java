@@ -14,6 +14,15 @@ public class Grid
      */
     public double density;
 
+    /** x coordinates of columns of nodes, in chunks being generated.
+     * Accumulated column by column, as in {@link #getCoordinates}, so 
+     * that the coordinates generated are the same.
+     */
+    private transient double[] columns;
+    /** Number of chunks being generated.
+     */
+    private transient int chunks;
+
     //Methods
     /** Constructor to create Grid point process.
      * @param density density of nodes in the network
@@ -49,6 +58,42 @@ public class Grid
 	return coordinates;
     }
 
+    /** Prepare chunks to generate coordinates in.
+     * Chunks are bands of columns of nodes.
+     * @param netArea network area definition
+     * @return number of chunks
+     */
+    protected int chunks(NetworkArea netArea)
+    {
+	double nodeInt = interval(density);
+	int count = 0;
+	for (double x = netArea.minX(); x < netArea.maxX(); x+=nodeInt)
+	    count++;
+	columns = new double[count];
+	count = 0;
+	for (double x = netArea.minX(); x < netArea.maxX(); x+=nodeInt)
+	    columns[count++] = x;
+
+	double perColumn = (netArea.maxY()-netArea.minY())/nodeInt;
+	chunks = (int) Math.max(1, Math.min(columns.length, 
+					    Math.ceil(columns.length*perColumn/16384)));
+	return chunks;
+    }
+
+    protected void generate(NetworkArea netArea, int chunk, CoordinateStore store)
+    {
+	double nodeInt = interval(density);
+	double x;
+	for (int i = (int) ((long) columns.length*chunk/chunks); 
+	     i < (int) ((long) columns.length*(chunk+1)/chunks); i++)
+	{
+	    x = columns[i];
+	    for (double y = netArea.minY(); y < netArea.maxY(); y+=nodeInt)
+		if (netArea.inArea(x, y))
+		    store.add(x, y);
+	}
+    }
+
     /** Main function to draw a sample of the point process.
      * @param args 1st argument is density of process
      */
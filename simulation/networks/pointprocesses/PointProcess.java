@@ -1,6 +1,7 @@
 package simulation.networks.pointprocesses;
 
 import java.util.*;
+import java.util.concurrent.*;
 import simulation.networks.*;
 import simulation.networks.areas.*;
 import simulation.files.images.*;
@@ -9,13 +10,132 @@ import simulation.files.images.*;
  * @author ykk
  */
 public abstract class PointProcess
+    implements java.io.Serializable
 {
+    //Members
+    /** Number of threads to generate coordinates with.
+     * Defaulted to number of processors.  Coordinates generated do not
+     * depend on it.
+     * @see #getStore(NetworkArea netArea)
+     */
+    public int threads = Runtime.getRuntime().availableProcessors();
+
+    //Methods
     /** Function to generate coordinates.
      * @return vector of coordinates.
      * @see simulation.networks.Coordinate
      */
     public abstract Vector getCoordinates(NetworkArea netArea);
 
+    /** Function to generate coordinates into arrays of x and y 
+     * coordinates, without an object for each.
+     * Defaulted to taking those of {@link #getCoordinates(NetworkArea netArea)}.
+     * Processes that can generate chunks of coordinates independently 
+     * override {@link #chunks(NetworkArea netArea)} and 
+     * {@link #generate(NetworkArea netArea, int chunk, CoordinateStore store)}
+     * instead, to have chunks generated in parallel.
+     * @param netArea network area definition
+     * @return store of coordinates
+     */
+    public CoordinateStore getStore(NetworkArea netArea)
+    {
+	int chunks = chunks(netArea);
+	if (chunks == 0)
+	    return new CoordinateStore(getCoordinates(netArea));
+
+	CoordinateStore[] stores = new CoordinateStore[chunks];
+	generate(netArea, stores);
+	int size = 0;
+	for (int i = 0; i < chunks; i++)
+	    size += stores[i].size;
+	CoordinateStore store = new CoordinateStore(size);
+	for (int i = 0; i < chunks; i++)
+	    store.addAll(stores[i]);
+	return store;
+    }
+
+    /** Prepare chunks to generate coordinates in.
+     * @param netArea network area definition
+     * @return number of chunks, 0 if coordinates cannot be chunked 
+     *         (default)
+     */
+    protected int chunks(NetworkArea netArea)
+    {
+	return 0;
+    }
+
+    /** Generate a chunk of coordinates.
+     * Called from multiple threads, for different chunks.
+     * @param netArea network area definition
+     * @param chunk index of chunk
+     * @param store store to add coordinates of chunk to
+     */
+    protected void generate(NetworkArea netArea, int chunk, CoordinateStore store)
+    {
+    }
+
+    /** Generate all chunks with a pool of {@link #threads} threads.
+     * @param netArea network area definition
+     * @param stores array to fill with store of each chunk
+     */
+    private void generate(final NetworkArea netArea, final CoordinateStore[] stores)
+    {
+	if (threads <= 1 || stores.length == 1)
+	{
+	    for (int i = 0; i < stores.length; i++)
+	    {
+		stores[i] = new CoordinateStore(1024);
+		generate(netArea, i, stores[i]);
+	    }
+	    return;
+	}
+
+	Vector tasks = new Vector();
+	for (int i = 0; i < stores.length; i++)
+	{
+	    final int chunk = i;
+	    tasks.add(new Callable()
+		{
+		    public Object call()
+		    {
+			stores[chunk] = new CoordinateStore(1024);
+			generate(netArea, chunk, stores[chunk]);
+			return null;
+		    }
+		});
+	}
+
+	ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+	    {
+		public Thread newThread(Runnable runnable)
+		{
+		    Thread thread = new Thread(runnable, "PointProcess");
+		    thread.setDaemon(true);
+		    return thread;
+		}
+	    });
+	try
+	{
+	    List futures = executor.invokeAll(tasks);
+	    for (int i = 0; i < futures.size(); i++)
+		((Future) futures.get(i)).get();
+	}
+	catch (InterruptedException e)
+	{
+	    throw new RuntimeException(this+" interrupted while generating coordinates: "+e);
+	}
+	catch (ExecutionException e)
+	{
+	    if (e.getCause() instanceof RuntimeException)
+		throw (RuntimeException) e.getCause();
+	    throw new RuntimeException(this+" fails to generate coordinates: "+e.getCause());
+	}
+	finally
+	{
+	    executor.shutdown();
+	}
+    }
+
     /** Test Function.
      * @param netArea network area definition
      * @param pp point process to draw
@@ -23,6 +23,21 @@ public class Poisson
      */
     public double density;
 
+    /** Random stream that streams of chunks are split from.
+     */
+    protected RandomStream random = RandomStreams.current().stream();
+    /** Random streams of chunks being generated.
+     */
+    private transient RandomStream[] streams;
+    /** Number of nodes of chunks being generated, or -1 for a Poisson
+     * number.
+     */
+    private transient int[] counts;
+    /** Distribution of number of nodes of chunks being generated, for
+     * a Poisson number.
+     */
+    private transient simulation.distributions.Poisson[] numbers;
+
     //Methods
     /** Constructor to create Poisson Point Process.
      * @param density density of nodes in the network
@@ -66,6 +81,80 @@ public class Poisson
 	return coordinates;
     }
 
+    /** Prepare chunks to generate coordinates in.
+     * Chunks are strips across the area, each with an independent random
+     * stream, which hold about 16384 nodes each.  For a "true" Poisson
+     * Point Process, each strip of the rectangle bounding the area has
+     * a Poisson number of nodes, of which those out of the area are 
+     * dropped.  Else, the number of nodes is split evenly across chunks 
+     * which draw over the whole area.
+     * @param netArea network area definition
+     * @return number of chunks
+     */
+    protected int chunks(NetworkArea netArea)
+    {
+	double avNumber = density*netArea.area();
+	int chunks = (int) Math.max(1, Math.min(1024, Math.ceil(avNumber/16384)));
+	streams = new RandomStream[chunks];
+	for (int i = 0; i < chunks; i++)
+	    streams[i] = random.split();
+
+	counts = new int[chunks];
+	if (truePoisson)
+	{
+	    numbers = new simulation.distributions.Poisson[chunks];
+	    for (int i = 0; i < chunks; i++)
+	    {
+		counts[i] = -1;
+		numbers[i] = new simulation.distributions.Poisson
+		    (density*(netArea.maxX()-netArea.minX())*
+		     (netArea.maxY()-netArea.minY())/chunks);
+		numbers[i].setStream(streams[i]);
+	    }
+	}
+	else
+	{
+	    long nodeNumber = Math.round(avNumber);
+	    for (int i = 0; i < chunks; i++)
+		counts[i] = (int) (nodeNumber*(i+1)/chunks-nodeNumber*i/chunks);
+	}
+	return chunks;
+    }
+
+    protected void generate(NetworkArea netArea, int chunk, CoordinateStore store)
+    {
+	RandomStream stream = streams[chunk];
+	double minX = netArea.minX(), width = netArea.maxX()-minX;
+	double minY = netArea.minY(), height = netArea.maxY()-minY;
+	double x, y;
+
+	if (counts[chunk] == -1)
+	{
+	    int nodeNumber = (int) numbers[chunk].getInstance();
+	    store.ensureCapacity(nodeNumber);
+	    height /= streams.length;
+	    minY += chunk*height;
+	    for (int i = 0; i < nodeNumber; i++)
+	    {
+		x = minX+width*stream.nextDouble();
+		y = minY+height*stream.nextDouble();
+		if (netArea.inArea(x, y))
+		    store.add(x, y);
+	    }
+	}
+	else
+	{
+	    store.ensureCapacity(counts[chunk]);
+	    while (store.size < counts[chunk])
+	    {
+		x = minX+width*stream.nextDouble();
+		y = minY+height*stream.nextDouble();
+		if (netArea.inArea(x, y))
+		    store.add(x, y);
+	    }
+	}
+    }
+
     /** Main function to draw a sample of the point process.
      * @param args 1st argument is density of process
      */
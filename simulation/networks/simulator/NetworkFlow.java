@@ -12,6 +12,7 @@ import java.util.*;
  * @author ykk
  */
 public class NetworkFlow
+    implements LinkListener, java.io.Serializable
 {
     //Members
     /** Source node.
@@ -86,4 +87,24 @@ public class NetworkFlow
 	route = Dijkstra.shortestpath(network, linkCost, source, sink);
 	return route;
     }
+
+    /** Links added are ignored, as route is not made invalid.
+     * @param source source node
+     * @param destination destination node
+     */
+    public void linkAdded(Node source, Node destination)
+    {
+    }
+
+    /** Get route afresh if link removed breaks the route.
+     * @param source source node
+     * @param destination destination node
+     * @see NeighborTracker
+     */
+    public void linkRemoved(Node source, Node destination)
+    {
+	if ((route != null) && route.inRoute(source) && 
+	    route.inRoute(destination) && !route.valid())
+	    getRoute();
+    }
 }
\ No newline at end of file
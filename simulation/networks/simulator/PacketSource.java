@@ -7,6 +7,7 @@ import simulation.communications.packets.*;
  * @author ykk
  */
 public abstract class PacketSource
+    implements java.io.Serializable
 {
     //Members
     /** Maximum number of packets.
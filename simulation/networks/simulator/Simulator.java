@@ -6,13 +6,20 @@ import simulation.utilities.references.*;
  * @author ykk
  */
 public abstract class Simulator
-    implements TimeReference
+    implements TimeReference, java.io.Serializable
 {
     //Members
     /** Debug flag.
      * Default is false
      */
     public boolean debug = false;
+    /** Metrics of simulator.
+     * Default is null, i.e., no metrics collected.  Metrics are not 
+     * saved with the simulator, e.g., in a checkpoint, and are set again
+     * after it is restored.
+     * @see SimulatorMetrics
+     */
+    public transient SimulatorMetrics metrics = null;
     
     //Methods
     /** Return current time.
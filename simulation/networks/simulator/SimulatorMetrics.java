@@ -0,0 +1,293 @@
+package simulation.networks.simulator;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.lang.management.*;
+import javax.management.*;
+import simulation.results.*;
+
+/** Metrics of a simulator run, e.g., to see where simulation time goes.
+ * Counts events (or objects run in each time slot) of each class of 
+ * object, and every {@link #sampleInterval} events, samples the queue 
+ * depth and times the handler of the event, so that the handler time 
+ * of each class can be estimated at little cost.  The distance between 
+ * time an event is scheduled at and its time is kept as a histogram 
+ * over powers of two.  A summary line is printed periodically, and the 
+ * metrics can be exposed through JMX.
+ * <BR>
+ * Metrics are off when the simulator has none, which costs a single 
+ * check per event.  Metrics are updated by the thread running the 
+ * simulator, and can be read from other threads, e.g., through JMX, 
+ * without locks, though counters read may be slightly out of date.
+ * @see simulation.networks.simulator.Simulator#metrics
+ * @author ykk
+ */
+public class SimulatorMetrics
+    implements SimulatorMetricsMBean
+{
+    //Members
+    /** Number of events between samples.
+     * Defaulted to 64.
+     */
+    public int sampleInterval = 64;
+    /** Interval between summary lines, in milliseconds of wall time.
+     * Defaulted to 10 s.  No summary is printed if zero.
+     */
+    public long summaryInterval = 10000;
+    /** Stream to print summary lines to.
+     * Defaulted to standard output.
+     */
+    public PrintStream output = System.out;
+    /** Number of events counted.
+     */
+    private long events = 0;
+    /** Number of events before next sample.
+     */
+    private int countdown = 1;
+    /** Queue depth sampled.
+     */
+    public Result queueDepth = new Result();
+    /** Queue depth when last sampled.
+     */
+    private double lastDepth = 0;
+    /** Map of class to its counters.
+     * Concurrent, since it is iterated by threads reading the metrics 
+     * while the simulator adds classes.
+     */
+    private ConcurrentHashMap classes = new ConcurrentHashMap();
+    /** Class of last event, to save looking up its counters.
+     */
+    private Class lastClass;
+    /** Counters of class of last event.
+     */
+    private long[] lastCounters;
+    /** Histogram of scheduling distance, by binary exponent of distance.
+     * Bucket 0 is for zero distance, and bucket i for distances in 
+     * [2^(i-1+minExponent), 2^(i+minExponent)).
+     */
+    private long[] distances = new long[2+maxExponent-minExponent];
+    /** Smallest exponent of scheduling distance in histogram.
+     */
+    private static final int minExponent = -31;
+    /** Largest exponent of scheduling distance in histogram.
+     */
+    private static final int maxExponent = 32;
+    /** Wall time metrics started at (in nanoseconds).
+     */
+    private long startTime = System.nanoTime();
+    /** Wall time of last summary (in milliseconds).
+     */
+    private long lastSummary = System.currentTimeMillis();
+    /** Number of events at last summary.
+     */
+    private long lastEvents = 0;
+    /** Simulator metrics belong to.
+     */
+    private Simulator simulator;
+
+    //Methods
+    /** Constructor.
+     * @param simulator simulator to collect metrics of
+     */
+    public SimulatorMetrics(Simulator simulator)
+    {
+	this.simulator = simulator;
+    }
+
+    /** Count event of object.
+     * The queue depth is sampled if it is time for a sample.
+     * @param object object of event
+     * @param depth current queue depth
+     * @return if handler of event is to be timed
+     * @see #timed(Object object, long nanoseconds)
+     */
+    public boolean count(Object object, int depth)
+    {
+	events++;
+	counters(object)[0]++;
+	if (--countdown > 0)
+	    return false;
+
+	countdown = sampleInterval;
+	lastDepth = depth;
+	queueDepth.input(depth);
+	if ((summaryInterval > 0) && 
+	    (System.currentTimeMillis()-lastSummary >= summaryInterval))
+	    printSummary();
+	return true;
+    }
+
+    /** Record time taken by handler of event sampled.
+     * @param object object of event
+     * @param nanoseconds wall time taken by handler
+     */
+    public void timed(Object object, long nanoseconds)
+    {
+	long[] counters = counters(object);
+	counters[1]++;
+	counters[2] += nanoseconds;
+    }
+
+    /** Record scheduling distance of event.
+     * @param distance time of event less current time
+     */
+    public void scheduled(double distance)
+    {
+	if (distance <= 0)
+	    distances[0]++;
+	else
+	    distances[1+Math.max(minExponent, 
+				 Math.min(maxExponent, Math.getExponent(distance)))-
+		      minExponent]++;
+    }
+
+    /** Return counters of class of object, i.e., events, events timed 
+     * and nanoseconds taken by events timed.
+     * @param object object of event
+     * @return counters
+     */
+    private long[] counters(Object object)
+    {
+	Class objectClass = object.getClass();
+	if (objectClass != lastClass)
+	{
+	    lastCounters = (long[]) classes.get(objectClass);
+	    if (lastCounters == null)
+	    {
+		lastCounters = new long[3];
+		classes.put(objectClass, lastCounters);
+	    }
+	    lastClass = objectClass;
+	}
+	return lastCounters;
+    }
+
+    /** Register metrics with the platform MBean server, under the name
+     * simulation:type=Simulator,name=(name).
+     * @param name name of simulator
+     */
+    public void register(String name)
+    {
+	try
+	{
+	    ManagementFactory.getPlatformMBeanServer().
+		registerMBean(this, new ObjectName("simulation:type=Simulator,name="+name));
+	}
+	catch (JMException e)
+	{
+	    throw new RuntimeException(this+" fails to register as "+name+": "+e);
+	}
+    }
+
+    /** Print summary line, with events per second since last summary.
+     */
+    public void printSummary()
+    {
+	long now = System.currentTimeMillis();
+	double rate = (events-lastEvents)*1000.0/Math.max(1, now-lastSummary);
+	lastSummary = now;
+	lastEvents = events;
+	output.println("Metrics time="+simulator.time()+" "+
+		       Math.round(rate)+" events/s "+getSummary());
+    }
+
+    public long getEvents()
+    {
+	return events;
+    }
+
+    public double getEventsPerSecond()
+    {
+	return events*1e9/Math.max(1, System.nanoTime()-startTime);
+    }
+
+    public double getQueueDepth()
+    {
+	return lastDepth;
+    }
+
+    public double getMeanQueueDepth()
+    {
+	return queueDepth.mean;
+    }
+
+    public double getMaxQueueDepth()
+    {
+	return queueDepth.max;
+    }
+
+    /** Return estimated handler time of class, in nanoseconds.
+     * @param counters counters of class
+     * @return estimated total handler time
+     */
+    private static double estimatedTime(long[] counters)
+    {
+	return (counters[1] == 0)? 0:((double) counters[2])*counters[0]/counters[1];
+    }
+
+    /** Return classes sorted by estimated handler time, largest first.
+     * @return vector of map entries of class to counters
+     */
+    private Vector sortedClasses()
+    {
+	Vector entries = new Vector(classes.entrySet());
+	Collections.sort(entries, new Comparator()
+	    {
+		public int compare(Object o1, Object o2)
+		{
+		    return Double.compare(estimatedTime((long[]) ((Map.Entry) o2).getValue()),
+					  estimatedTime((long[]) ((Map.Entry) o1).getValue()));
+		}
+	    });
+	return entries;
+    }
+
+    public String getClasses()
+    {
+	StringBuffer result = new StringBuffer();
+	Vector entries = sortedClasses();
+	for (int i = 0; i < entries.size(); i++)
+	{
+	    Map.Entry entry = (Map.Entry) entries.get(i);
+	    long[] counters = (long[]) entry.getValue();
+	    result.append(((Class) entry.getKey()).getName()+"\t"+counters[0]+
+			  " events\t"+Math.round(estimatedTime(counters)/1e6)+" ms\n");
+	}
+	return result.toString();
+    }
+
+    public String getSchedulingDistances()
+    {
+	StringBuffer result = new StringBuffer();
+	if (distances[0] != 0)
+	    result.append("0\t"+distances[0]+"\n");
+	for (int i = 1; i < distances.length; i++)
+	    if (distances[i] != 0)
+		result.append("[2^"+(i-1+minExponent)+",2^"+(i+minExponent)+")\t"+
+			      distances[i]+"\n");
+	return result.toString();
+    }
+
+    public String getSummary()
+    {
+	StringBuffer result = new StringBuffer();
+	result.append(events+" events, depth "+lastDepth+
+		      " (mean "+Math.round(queueDepth.mean)+
+		      ", max "+queueDepth.max+")");
+	Vector entries = sortedClasses();
+	for (int i = 0; (i < entries.size()) && (i < 3); i++)
+	{
+	    Map.Entry entry = (Map.Entry) entries.get(i);
+	    long[] counters = (long[]) entry.getValue();
+	    result.append(", "+((Class) entry.getKey()).getSimpleName()+" "+
+			  counters[0]+" in "+Math.round(estimatedTime(counters)/1e6)+" ms");
+	}
+	return result.toString();
+    }
+
+    public String toString()
+    {
+	return "SimulatorMetrics";
+    }
+}
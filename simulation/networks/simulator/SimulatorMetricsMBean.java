@@ -0,0 +1,48 @@
+package simulation.networks.simulator;
+
+/** Management interface of simulator metrics, exposed through JMX.
+ * @see SimulatorMetrics
+ * @author ykk
+ */
+public interface SimulatorMetricsMBean
+{
+    /** Return number of events (or objects run in time slots) counted.
+     * @return number of events
+     */
+    public long getEvents();
+
+    /** Return events per second of wall time, since metrics started.
+     * @return events per second
+     */
+    public double getEventsPerSecond();
+
+    /** Return queue depth when last sampled.
+     * @return queue depth
+     */
+    public double getQueueDepth();
+
+    /** Return mean of queue depth sampled.
+     * @return mean queue depth
+     */
+    public double getMeanQueueDepth();
+
+    /** Return maximum of queue depth sampled.
+     * @return maximum queue depth
+     */
+    public double getMaxQueueDepth();
+
+    /** Return event counts and estimated handler time of each class.
+     * @return one line per class
+     */
+    public String getClasses();
+
+    /** Return histogram of scheduling distance.
+     * @return one line per bucket
+     */
+    public String getSchedulingDistances();
+
+    /** Return summary line.
+     * @return summary
+     */
+    public String getSummary();
+}
@@ -4,6 +4,7 @@ package simulation.results;
  * @author ykk
  */
 public class Result
+    implements java.io.Serializable
 {
     //Members
     /** Average value maintained by class.
@@ -43,4 +44,19 @@ public class Result
 	if (inputValue > max) max = inputValue;
 	if (inputValue < min) min = inputValue;
     }
+
+    /** Function to merge results collected elsewhere, e.g., in
+     * another replication of the simulation.
+     * The result is as though all samples were taken in by this class.
+     * @param result result to merge
+     */
+    public void merge(Result result)
+    {
+	if (result.sampleSize == 0) return;
+	mean = (sampleSize*mean + result.sampleSize*result.mean)/
+	    (sampleSize+result.sampleSize);
+	sampleSize += result.sampleSize;
+	if (result.max > max) max = result.max;
+	if (result.min < min) min = result.min;
+    }
 }
@@ -24,7 +24,7 @@ public class ResultVar
      */
     public double stdDev()
     {
-	return Math.sqrt(variance);
+	return Math.sqrt(Math.max(variance,0));
     }
 
     /** Function to take in a sample of result.
@@ -42,4 +42,40 @@ public class ResultVar
 
 	variance = squaredMean-Math.pow(mean,2.0);
     }
+
+    /** Function to merge results collected elsewhere, e.g., in
+     * another replication of the simulation.
+     * Variance of a {@link Result} without variance is taken as zero.
+     * @param result result to merge
+     */
+    public void merge(Result result)
+    {
+	if (result.sampleSize == 0) return;
+	double otherSquaredMean = Math.pow(result.mean,2.0);
+	if (result instanceof ResultVar)
+	    otherSquaredMean = ((ResultVar) result).squaredMean;
+	squaredMean = (sampleSize*squaredMean + result.sampleSize*otherSquaredMean)/
+	    (sampleSize+result.sampleSize);
+	super.merge(result);
+
+	variance = squaredMean-Math.pow(mean,2.0);
+    }
+
+    /** Function to return half width of confidence interval of the mean.
+     * Samples are assumed to be independent and identically distributed, 
+     * e.g., each from an independent replication, and the interval
+     * uses Student's t-distribution.
+     * @param confidence confidence level, e.g., 0.95
+     * @return half width of confidence interval; 
+     *         positive infinity if less than 2 samples
+     * @see simulation.math.probability.StudentT
+     */
+    public double halfWidth(double confidence)
+    {
+	if (sampleSize < 2) return Double.POSITIVE_INFINITY;
+	double sampleVariance = Math.max(variance,0)*sampleSize/(sampleSize-1);
+	return simulation.math.probability.StudentT.quantile(0.5+confidence/2,
+							     sampleSize-1)*
+	    Math.sqrt(sampleVariance/sampleSize);
+    }
 }
@@ -0,0 +1,215 @@
+package simulation.results;
+
+/** Statistical stopping rule for a simulation run, controlled by a
+ * {@link Result}.
+ * Samples taken in by the result are grouped in batches of
+ * {@link #batchSize}.  The end of warm-up is detected with MSER-5
+ * (marginal standard error rule, on batches of 5), i.e., the number d
+ * of batches truncated minimizes
+ * <BR>
+ * MSER(d) = sum over j > d of (Z<sub>j</sub> - mean of Z after d)<sup>2</sup> / (m-d)<sup>2</sup>,
+ * <BR>
+ * where Z<sub>j</sub> is the mean of the j-th of m batches.  Warm-up is
+ * not yet over if d is beyond half the batches.  The batches after
+ * warm-up are then regrouped into {@link #batches} batch means, from
+ * which a confidence interval of the mean is computed.  The run is done
+ * once the half width of the interval relative to the mean is below
+ * {@link #relativeHalfWidth}, and the batch means are not correlated.
+ * <BR>
+ * The result is only read, i.e., any {@link Result} or {@link ResultVar}
+ * can be used as is.  Samples are read back from the change in mean and
+ * sample size, which is exact enough for this purpose.
+ * @author ykk
+ */
+public class StoppingRule
+    implements java.io.Serializable
+{
+    //Members
+    /** Result controlling the run.
+     */
+    public Result result;
+    /** Relative half width of confidence interval required.
+     * Defaulted to 0.05, i.e., 5% of the mean.
+     */
+    public double relativeHalfWidth = 0.05;
+    /** Confidence level of interval.
+     * Defaulted to 0.95.
+     */
+    public double confidence = 0.95;
+    /** Number of batch means for confidence interval.
+     * Defaulted to 20.
+     */
+    public int batches = 20;
+    /** Maximum lag-1 autocorrelation of batch means, for them to be
+     * taken as independent.
+     * Defaulted to 0.2.
+     */
+    public double maxCorrelation = 0.2;
+    /** Number of samples in each batch for MSER.
+     * Defaulted to 5, i.e., MSER-5.
+     */
+    public int batchSize = 5;
+    /** Maximum number of samples to take, after which the run is done
+     * regardless.
+     * Defaulted to 0, i.e., no maximum.
+     */
+    public double maxSamples = 0;
+    /** Number of samples truncated as warm-up, -1 if not yet detected.
+     */
+    public double warmup = -1;
+    /** Mean after warm-up, at last check.
+     */
+    public double mean = Double.NaN;
+    /** Half width of confidence interval of mean, at last check.
+     */
+    public double halfWidth = Double.POSITIVE_INFINITY;
+    /** Indicate if the run is done.
+     */
+    protected boolean done = false;
+    /** Means of batches.
+     */
+    protected double[] means = new double[1024];
+    /** Number of batches.
+     */
+    protected int count = 0;
+    /** Sample size of result at start of current batch.
+     */
+    private double startSize;
+    /** Sum of samples of result at start of current batch.
+     */
+    private double startSum;
+    /** Sample size of result last read.
+     */
+    private double lastSize;
+    /** Number of batches at which to check next.
+     */
+    private int nextCheck;
+
+    //Methods
+    /** Constructor.
+     * @param result result controlling the run
+     */
+    public StoppingRule(Result result)
+    {
+	this.result = result;
+	startSize = lastSize = result.sampleSize;
+	startSum = result.sampleSize*result.mean;
+    }
+
+    /** Constructor.
+     * @param result result controlling the run
+     * @param relativeHalfWidth relative half width of confidence
+     *                          interval required
+     */
+    public StoppingRule(Result result, double relativeHalfWidth)
+    {
+	this(result);
+	this.relativeHalfWidth = relativeHalfWidth;
+    }
+
+    /** Read new samples of result, and check if the run is done.
+     * Cheap enough to be called after every event.  The stopping rule is
+     * only evaluated each time the number of batches grows by a tenth.
+     * @return if the run is done
+     */
+    public boolean isDone()
+    {
+	if (done || result.sampleSize == lastSize)
+	    return done;
+	lastSize = result.sampleSize;
+
+	if (result.sampleSize-startSize >= batchSize)
+	{
+	    double sum = result.sampleSize*result.mean;
+	    if (count == means.length)
+	    {
+		double[] old = means;
+		means = new double[2*old.length];
+		System.arraycopy(old, 0, means, 0, count);
+	    }
+	    means[count++] = (sum-startSum)/(result.sampleSize-startSize);
+	    startSize = result.sampleSize;
+	    startSum = sum;
+
+	    if (count >= Math.max(nextCheck, 2*batches))
+	    {
+		nextCheck = Math.max(count+1, count+count/10);
+		done = check();
+	    }
+	}
+
+	if (maxSamples != 0 && result.sampleSize >= maxSamples)
+	    done = true;
+	return done;
+    }
+
+    /** Detect end of warm-up by MSER over batches.
+     * @return number of batches to truncate, -1 if warm-up is not over
+     */
+    public int truncation()
+    {
+	double sum = 0, squaredSum = 0;
+	double mser, minMser = Double.POSITIVE_INFINITY;
+	int truncate = 0;
+	for (int d = count-1; d >= 0; d--)
+	{
+	    sum += means[d];
+	    squaredSum += means[d]*means[d];
+	    if (count-d < batches)
+		continue;
+	    mser = (squaredSum-sum*sum/(count-d))/((double) (count-d)*(count-d));
+	    if (mser <= minMser)
+	    {
+		minMser = mser;
+		truncate = d;
+	    }
+	}
+
+	return (truncate > count/2)? -1:truncate;
+    }
+
+    /** Check if the confidence interval of the mean after warm-up is
+     * narrow enough.
+     * Updates {@link #warmup}, {@link #mean} and {@link #halfWidth}.
+     * @return if the run is done
+     */
+    protected boolean check()
+    {
+	int truncate = truncation();
+	if (truncate < 0)
+	    return false;
+	warmup = truncate*(double) batchSize;
+
+	int size = (count-truncate)/batches;
+	int start = count-size*batches;
+	ResultVar batchMeans = new ResultVar();
+	double[] y = new double[batches];
+	for (int i = 0; i < batches; i++)
+	{
+	    for (int j = 0; j < size; j++)
+		y[i] += means[start+i*size+j];
+	    y[i] /= size;
+	    batchMeans.input(y[i]);
+	}
+	mean = batchMeans.mean;
+	halfWidth = batchMeans.halfWidth(confidence);
+
+	double covariance = 0;
+	for (int i = 1; i < batches; i++)
+	    covariance += (y[i-1]-mean)*(y[i]-mean);
+	double variance = batchMeans.variance*batches;
+	double correlation = (variance > 0)? covariance/variance:0;
+
+	return ((halfWidth <= relativeHalfWidth*Math.abs(mean)) &&
+		(correlation <= maxCorrelation));
+    }
+
+    /** Return description of rule and its outcome.
+     * @return description
+     */
+    public String toString()
+    {
+	return "Warm-up = "+warmup+" samples, mean = "+mean+" +/- "+halfWidth+
+	    " ("+confidence+" confidence)";
+    }
+}
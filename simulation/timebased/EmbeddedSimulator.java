@@ -0,0 +1,152 @@
+package simulation.timebased;
+
+import simulation.eventbased.*;
+
+/** Time based simulator embedded in an event based simulator, for
+ * models mixing event driven and time stepped components.
+ * All {@link RunObject}s added are run as a single periodic event of the
+ * event based simulator, i.e., one event per slot rather than one per
+ * object per slot.  Slots are aligned to multiples of 
+ * {@link #timeIncrement} of the event based simulator's time, so that
+ * both agree on {@link #time()} whenever objects are run.
+ * <BR>
+ * Idle objects are skipped as in {@link Simulator}.  The periodic event
+ * is only scheduled for slots in which an object is to be run, and
+ * stops when no object is; objects woken by event driven components
+ * restart it in the next slot.  With {@link #skipIdle} false, the event
+ * recurs every slot.
+ * @see Simulator#wake(RunObject)
+ * @author ykk
+ */
+public class EmbeddedSimulator
+    extends Simulator
+    implements TypedEventTriggered
+{
+    //Members
+    /** Array of events possible.
+     */
+    public static final String[] events = {"Slot due"};
+    /** Kind of typed event for "Slot due".
+     */
+    public static final int eventSlotDue = 0;
+    /** Event based simulator hosting slots.
+     */
+    public simulation.eventbased.Simulator host;
+    /** Time of slot event scheduled, NaN if none.
+     */
+    protected double slotTime = Double.NaN;
+    /** Indicate if slot is being run.
+     */
+    private boolean running = false;
+
+    //Methods
+    /** Constructor.
+     * @param host event based simulator hosting slots
+     * @param timeIncrement duration of slot
+     */
+    public EmbeddedSimulator(simulation.eventbased.Simulator host, 
+			     double timeIncrement)
+    {
+	this.host = host;
+	this.timeIncrement = timeIncrement;
+    }
+
+    /** Start running objects added, from the next slot boundary of the
+     * event based simulator's time.
+     */
+    public void start()
+    {
+	align(host.time());
+	schedule();
+    }
+
+    /** Wake object, and schedule slot event if the object woken is
+     * to be run before it.
+     * @param object object to wake
+     */
+    public void wake(RunObject object)
+    {
+	super.wake(object);
+	if (!running)
+	{
+	    align(host.time());
+	    schedule();
+	}
+    }
+
+    /** Event triggered interface.
+     * Maps string reference of event to its kind.
+     * @param time current time
+     * @param event event string definition
+     * @param simulator reference to simulator
+     * @see #events
+     */
+    public void run(double time, String event, 
+		    simulation.eventbased.Simulator simulator)
+    {
+	run(time, simulation.utilities.structures.Array.indexOf(events, event),
+	    null, simulator);
+    }
+
+    /** Typed event triggered interface.
+     * Runs a slot, and schedules the next slot with objects to run.
+     * @param time current time
+     * @param kind kind of event
+     * @param payload payload of event (not used)
+     * @param simulator reference to simulator
+     * @see #events
+     */
+    public void run(double time, int kind, Object payload, 
+		    simulation.eventbased.Simulator simulator)
+    {
+	switch (kind)
+	{
+	case eventSlotDue:
+	    slotTime = Double.NaN;
+	    align(time);
+	    running = true;
+	    try
+	    {
+		runNextSlot();
+	    }
+	    finally
+	    {
+		running = false;
+	    }
+	    schedule();
+	    break;
+	default:
+	    throw new RuntimeException(this+" encounters unknown event kind "+kind);
+	}
+    }
+
+    /** Skip slots before the given time.
+     * Slots skipped are idle, since a slot event is scheduled for every 
+     * slot with objects to run.
+     * @param time time to align slots to
+     */
+    protected void align(double time)
+    {
+	long slots = (long) Math.ceil((time-time())/timeIncrement-1e-9);
+	if (slots > 0)
+	    skip(slots);
+    }
+
+    /** Schedule slot event for next slot with objects to run, replacing
+     * any later slot event.
+     */
+    protected void schedule()
+    {
+	long idle = idleSlots();
+	if (idle < 0)
+	    return;
+
+	double next = time()+idle*timeIncrement;
+	if (slotTime <= next)
+	    return;
+	if (!Double.isNaN(slotTime))
+	    host.cancel(eventSlotDue, this);
+	slotTime = next;
+	host.schedule(next, this, eventSlotDue, null);
+    }
+}
@@ -0,0 +1,239 @@
+package simulation.timebased;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/** Time based simulator that runs slots of {@link TwoPhaseRunObject} in
+ * parallel.
+ * Each slot is run as
+ * <OL>
+ * <LI>other objects, e.g., packet sources, in turn,</LI>
+ * <LI>processing of receptions of last slot, in turn for each 
+ * object that received,</LI>
+ * <LI>first phase (transmit) of all objects, in parallel,</LI>
+ * <LI>second phase (resolve) of all objects, in parallel.</LI>
+ * </OL>
+ * Objects are divided into contiguous blocks of {@link #runList}, one per
+ * thread.  Since the phases only change state of the object itself, and
+ * every other step is run in order of {@link #runList}, results for a 
+ * given seed do not depend on the number of threads.
+ * <BR>
+ * All objects are run in every slot, i.e., idle objects are not skipped.
+ * Packet processors' hasPkt and get, and communication channels, are 
+ * called from multiple threads and must be safe to do so.  Channels with
+ * random success draw from the stream of the receiver, which resolves its
+ * receptions in one thread, and so results do not depend on the order 
+ * threads run in either.
+ * @see simulation.communications.nodes.CommNode#receiveStream
+ * @see TwoPhaseRunObject
+ * @author ykk
+ */
+public class ParallelSimulator
+    extends Simulator
+{
+    //Members
+    /** Number of threads to run objects.
+     * Defaulted to the number of processors available.
+     */
+    public int threads = Runtime.getRuntime().availableProcessors();
+    /** Objects with two phases.
+     */
+    protected TwoPhaseRunObject[] objects = new TwoPhaseRunObject[0];
+    /** Other objects, run in turn.
+     */
+    protected Vector others = new Vector();
+    /** Objects that received in last slot.
+     */
+    protected Vector received = new Vector();
+    /** Tasks to run blocks of objects.
+     */
+    private Vector tasks = new Vector();
+    /** Thread pool to run blocks of objects.
+     */
+    private transient ExecutorService executor;
+
+    //Methods
+    /** Run next time slot.
+     * @return if time is run
+     */
+    public boolean runNextSlot()
+    {
+	lastRunHasEvent = false;
+	needMoreRun = false;
+
+	if (debug) System.out.println("Time="+time());
+	if (maxTime == 0 || time() < maxTime)
+	{
+	    if (objects.length+others.size() != runList.size())
+		divide();
+
+	    RunObject runObj;
+	    for (int i = 0; i < others.size(); i++)
+	    {
+		runObj = (RunObject) others.get(i);
+		lastRunHasEvent = runObject(runObj) || lastRunHasEvent;
+		needMoreRun = needMoreRun || runObj.needMoreRun();
+	    }
+
+	    for (int i = 0; i < received.size(); i++)
+		((TwoPhaseRunObject) received.get(i)).flush(time(), this);
+	    received.clear();
+
+	    invoke(false);
+	    invoke(true);
+
+	    BlockTask task;
+	    for (int i = 0; i < tasks.size(); i++)
+	    {
+		task = (BlockTask) tasks.get(i);
+		lastRunHasEvent = lastRunHasEvent || task.hasEvent;
+		needMoreRun = needMoreRun || task.needMoreRun;
+		received.addAll(task.received);
+	    }
+
+	    nextSlot();
+	    return true;
+	}
+	else
+	    return false;
+    }
+
+    /** Objects are run in every slot, and need not be woken.
+     * @param object object to wake
+     */
+    public void wake(RunObject object)
+    {
+    }
+
+    /** Divide objects in {@link #runList} into blocks, one per thread.
+     */
+    protected void divide()
+    {
+	Vector twoPhase = new Vector();
+	others.clear();
+	for (int i = 0; i < runList.size(); i++)
+	    if (runList.get(i) instanceof TwoPhaseRunObject)
+		twoPhase.add(runList.get(i));
+	    else
+		others.add(runList.get(i));
+	objects = (TwoPhaseRunObject[]) 
+	    twoPhase.toArray(new TwoPhaseRunObject[twoPhase.size()]);
+
+	tasks.clear();
+	int blocks = Math.max(1, Math.min(threads, objects.length));
+	for (int i = 0; i < blocks; i++)
+	    tasks.add(new BlockTask((int) ((long) objects.length*i/blocks),
+				    (int) ((long) objects.length*(i+1)/blocks)));
+    }
+
+    /** Run a phase of all blocks with thread pool, and wait for them to
+     * complete.
+     * @param resolve if running second phase, else first
+     */
+    protected void invoke(boolean resolve)
+    {
+	for (int i = 0; i < tasks.size(); i++)
+	    ((BlockTask) tasks.get(i)).resolve = resolve;
+
+	if (tasks.size() == 1)
+	{
+	    ((BlockTask) tasks.get(0)).call();
+	    return;
+	}
+
+	if (executor == null)
+	    executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+		{
+		    public Thread newThread(Runnable runnable)
+		    {
+			Thread thread = new Thread(runnable, "ParallelSimulator");
+			thread.setDaemon(true);
+			return thread;
+		    }
+		});
+
+	try
+	{
+	    List futures = executor.invokeAll(tasks);
+	    for (int i = 0; i < futures.size(); i++)
+		((Future) futures.get(i)).get();
+	}
+	catch (InterruptedException e)
+	{
+	    throw new RuntimeException(this+" interrupted while running slot: "+e);
+	}
+	catch (ExecutionException e)
+	{
+	    if (e.getCause() instanceof RuntimeException)
+		throw (RuntimeException) e.getCause();
+	    throw new RuntimeException(this+" fails to run slot: "+e.getCause());
+	}
+    }
+
+    /** Stop threads used to run objects.
+     */
+    public void shutdown()
+    {
+	if (executor != null)
+	    executor.shutdown();
+	executor = null;
+    }
+
+    /** Task to run a phase of a block of objects.
+     */
+    protected class BlockTask
+	implements Callable, java.io.Serializable
+    {
+	/** Index of first object in block.
+	 */
+	private int from;
+	/** Index after last object in block.
+	 */
+	private int to;
+	/** Run second phase, else first.
+	 */
+	boolean resolve;
+	/** Any event run in first phase.
+	 */
+	boolean hasEvent;
+	/** Any object needs more run after first phase.
+	 */
+	boolean needMoreRun;
+	/** Objects that received in second phase, in order.
+	 */
+	Vector received = new Vector();
+
+	/** Constructor.
+	 * @param from index of first object in block
+	 * @param to index after last object in block
+	 */
+	BlockTask(int from, int to)
+	{
+	    this.from = from;
+	    this.to = to;
+	}
+
+	public Object call()
+	{
+	    double time = time();
+	    if (resolve)
+	    {
+		received.clear();
+		for (int i = from; i < to; i++)
+		    if (objects[i].resolve(time, ParallelSimulator.this))
+			received.add(objects[i]);
+	    }
+	    else
+	    {
+		hasEvent = false;
+		needMoreRun = false;
+		for (int i = from; i < to; i++)
+		{
+		    hasEvent = objects[i].transmit(time, ParallelSimulator.this) || hasEvent;
+		    needMoreRun = needMoreRun || objects[i].needMoreRun();
+		}
+	    }
+	    return null;
+	}
+    }
+}
@@ -31,6 +31,39 @@ public class Simulator
     /** Indicates if any object needs more run.
      */
     public boolean needMoreRun = true;
+    /** Run only objects that are active or woken, and jump over slots
+     * in which no object is.
+     * Default to true.
+     * @see #wake(RunObject)
+     */
+    public boolean skipIdle = true;
+    /** Current slot number.
+     */
+    private long slot = 0;
+    /** Index of objects in {@link #runList}.
+     */
+    private IdentityHashMap index = new IdentityHashMap();
+    /** Objects to run in current slot, by index.
+     */
+    private BitSet active = new BitSet();
+    /** Objects to run in next slot, by index.
+     */
+    private BitSet nextActive = new BitSet();
+    /** Index of object currently run, -1 if none.
+     */
+    private int current = -1;
+    /** Slot each object sleeps until, -1 if not sleeping.
+     */
+    private long[] wakeSlot = new long[0];
+    /** Indicate if sleeping object needed more run when put to sleep.
+     */
+    private boolean[] sleepNeeds = new boolean[0];
+    /** Number of sleeping objects that needed more run.
+     */
+    private int sleepingNeeds = 0;
+    /** Pending wake ups of sleeping objects.
+     */
+    private PriorityQueue wakeups = new PriorityQueue();
 
     //Methods
     /** Add objects to list to run.
@@ -40,36 +73,238 @@ public class Simulator
 	runList.add(object);
     }
 
+    /** Wake object, so that it is run in the next slot, and in the
+     * current slot too if it has not been run yet.
+     * Cancels any sleep the object is in.
+     * Objects that are idle are only run again when woken, e.g., on
+     * receiving a packet.
+     * @param object object to wake
+     * @see #skipIdle
+     */
+    public void wake(RunObject object)
+    {
+	Integer i = (Integer) index.get(object);
+	if (i == null)
+	    return;
+
+	int idx = i.intValue();
+	cancelSleep(idx);
+	if (idx > current)
+	    active.set(idx);
+	nextActive.set(idx);
+    }
+
     /** Run next time slot.
+     * If {@link #skipIdle}, only objects that are active or woken are run,
+     * and time jumps to the next slot with a sleeping object to wake
+     * when no object is active.
      * @return if time is run
      */
     public boolean runNextSlot()
     {
 	RunObject runObj;
 	boolean objRun;
+	boolean objMore;
 	lastRunHasEvent = false;
 	needMoreRun = false;
 
+	if (skipIdle)
+	{
+	    if (index.size() != runList.size())
+		reindex();
+	    wakeDue();
+	    if (active.isEmpty())
+		jump();
+	}
+
 	if (debug) System.out.println("Time="+time);
 	if (maxTime == 0 || time < maxTime)
 	{
-	    for (int i = 0; i < runList.size(); i++)
+	    if (skipIdle)
 	    {
-		runObj = (RunObject) runList.get(i);
-		objRun = runObj.run(time, this);
-		lastRunHasEvent = lastRunHasEvent || objRun;
-		needMoreRun = needMoreRun || runObj.needMoreRun();
-		if (debug) System.out.println("\t"+runList.get(i)+"\t"+
-					      objRun+"/"+runObj.needMoreRun());
+		for (current = active.nextSetBit(0); current >= 0; 
+		     current = active.nextSetBit(current+1))
+		{
+		    runObj = (RunObject) runList.get(current);
+		    cancelSleep(current);
+		    objRun = runObject(runObj);
+		    objMore = runObj.needMoreRun();
+		    if (runObj instanceof SkippableRunObject)
+		    {
+			long idle = ((SkippableRunObject) runObj).idleSlots(time, this);
+			if (idle == 0)
+			    nextActive.set(current);
+			else if (idle > 0)
+			    sleep(current, slot+1+idle, objMore);
+		    }
+		    else if (objRun || objMore)
+			nextActive.set(current);
+		    lastRunHasEvent = lastRunHasEvent || objRun;
+		    needMoreRun = needMoreRun || objMore;
+		}
+		needMoreRun = needMoreRun || (sleepingNeeds > 0);
+
+		BitSet run = active;
+		active = nextActive;
+		nextActive = run;
+		nextActive.clear();
 	    }
+	    else
+		for (int i = 0; i < runList.size(); i++)
+		{
+		    runObj = (RunObject) runList.get(i);
+		    objRun = runObject(runObj);
+		    lastRunHasEvent = lastRunHasEvent || objRun;
+		    needMoreRun = needMoreRun || runObj.needMoreRun();
+		}
 
-	    time += timeIncrement;
+	    nextSlot();
 	    return true;
 	}
 	else
 	    return false;
     }
- 
+
+    /** Advance time to next slot.
+     */
+    protected void nextSlot()
+    {
+	skip(1);
+    }
+
+    /** Advance time by slots, in which no object is run.
+     * @param slots number of slots
+     */
+    protected void skip(long slots)
+    {
+	slot += slots;
+	time += slots*timeIncrement;
+    }
+
+    /** Run an object in current slot.
+     * @param runObj object to run
+     * @return if any event run
+     */
+    protected boolean runObject(RunObject runObj)
+    {
+	boolean objRun;
+	if ((metrics != null) && metrics.count(runObj, runList.size()))
+	{
+	    long start = System.nanoTime();
+	    objRun = runObj.run(time, this);
+	    metrics.timed(runObj, System.nanoTime()-start);
+	}
+	else
+	    objRun = runObj.run(time, this);
+	if (debug) System.out.println("\t"+runObj+"\t"+
+				      objRun+"/"+runObj.needMoreRun());
+	return objRun;
+    }
+
+    /** Index objects in {@link #runList}, activating all of them.
+     */
+    private void reindex()
+    {
+	index.clear();
+	for (int i = 0; i < runList.size(); i++)
+	{
+	    index.put(runList.get(i), new Integer(i));
+	    active.set(i);
+	}
+
+	long[] oldSlot = wakeSlot;
+	wakeSlot = new long[runList.size()];
+	Arrays.fill(wakeSlot, -1);
+	System.arraycopy(oldSlot, 0, wakeSlot, 0, 
+			 Math.min(oldSlot.length, wakeSlot.length));
+	boolean[] oldNeeds = sleepNeeds;
+	sleepNeeds = new boolean[runList.size()];
+	System.arraycopy(oldNeeds, 0, sleepNeeds, 0, 
+			 Math.min(oldNeeds.length, sleepNeeds.length));
+    }
+
+    /** Put object to sleep till the given slot.
+     * @param idx index of object
+     * @param until slot to wake object in
+     * @param needs if object needs more run
+     */
+    private void sleep(int idx, long until, boolean needs)
+    {
+	wakeSlot[idx] = until;
+	wakeups.add(new Wakeup(until, idx));
+	sleepNeeds[idx] = needs;
+	if (needs)
+	    sleepingNeeds++;
+    }
+
+    /** Cancel sleep of object, if any.
+     * @param idx index of object
+     */
+    private void cancelSleep(int idx)
+    {
+	if (idx >= wakeSlot.length || wakeSlot[idx] < 0)
+	    return;
+
+	wakeSlot[idx] = -1;
+	if (sleepNeeds[idx])
+	    sleepingNeeds--;
+	sleepNeeds[idx] = false;
+    }
+
+    /** Activate sleeping objects due in current slot.
+     * Wake ups of cancelled sleeps are discarded.
+     */
+    private void wakeDue()
+    {
+	Wakeup wakeup;
+	while (!wakeups.isEmpty() && 
+	       ((wakeup = (Wakeup) wakeups.peek()).slot <= slot))
+	{
+	    wakeups.poll();
+	    if (wakeSlot[wakeup.index] == wakeup.slot)
+	    {
+		cancelSleep(wakeup.index);
+		active.set(wakeup.index);
+	    }
+	}
+    }
+
+    /** Jump to the next slot with a sleeping object to wake,
+     * or to {@link #maxTime} if there is none or it is earlier.
+     */
+    private void jump()
+    {
+	long skip = idleSlots();
+	if (maxTime != 0 && (skip < 0 || time+skip*timeIncrement > maxTime))
+	    skip = Math.max(0, (long) Math.ceil((maxTime-time)/timeIncrement));
+
+	if (skip > 0)
+	{
+	    if (debug) System.out.println("Skip "+skip+" slots at time="+time);
+	    skip(skip);
+	    wakeDue();
+	}
+    }
+
+    /** Return number of slots before any object is to be run.
+     * @return 0 if objects are active (or idle objects are not skipped),
+     *         number of slots till first sleeping object wakes,
+     *         or -1 if no object is to be run till woken
+     */
+    protected long idleSlots()
+    {
+	if (!skipIdle || index.size() != runList.size() || !active.isEmpty())
+	    return 0;
+
+	while (!wakeups.isEmpty() && 
+	       (wakeSlot[((Wakeup) wakeups.peek()).index] != 
+		((Wakeup) wakeups.peek()).slot))
+	    wakeups.poll();
+	if (wakeups.isEmpty())
+	    return -1;
+	return Math.max(0, ((Wakeup) wakeups.peek()).slot - slot);
+    }
+
     /** Return current time.
      * @return time
      */
@@ -77,4 +312,35 @@ public class Simulator
     {
 	return this.time;
     }   
+
+    /** Wake up of a sleeping object.
+     */
+    private static class Wakeup
+	implements Comparable, java.io.Serializable
+    {
+	/** Slot to wake in.
+	 */
+	long slot;
+	/** Index of object.
+	 */
+	int index;
+
+	/** Constructor.
+	 * @param slot slot to wake in
+	 * @param index index of object
+	 */
+	Wakeup(long slot, int index)
+	{
+	    this.slot = slot;
+	    this.index = index;
+	}
+
+	public int compareTo(Object o)
+	{
+	    Wakeup other = (Wakeup) o;
+	    if (slot != other.slot)
+		return (slot < other.slot) ? -1 : 1;
+	    return index - other.index;
+	}
+    }
 }
\ No newline at end of file
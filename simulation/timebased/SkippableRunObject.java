@@ -0,0 +1,21 @@
+package simulation.timebased;
+
+/** Interface for {@link RunObject} that can tell the discrete time
+ * {@link Simulator} how many coming slots it has nothing to do in,
+ * so that those slots are skipped for it.
+ * @author ykk
+ */
+public interface SkippableRunObject
+    extends RunObject
+{
+    /** Number of slots following the current one in which running
+     * this object would do nothing.
+     * Called after each run of the object.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return number of idle slots, 0 to run in the next slot,
+     *         or negative if idle until woken
+     * @see Simulator#wake(RunObject)
+     */
+    public long idleSlots(double time, Simulator simulator);
+}
@@ -0,0 +1,37 @@
+package simulation.timebased;
+
+/** Interface for object whose run in a slot can be split into two phases,
+ * as for medium access, for {@link ParallelSimulator}.
+ * In the first phase, objects decide on and hold their transmissions.
+ * In the second, objects receive transmissions held by others.
+ * Both phases may only change state of the object itself, so that 
+ * objects can be run in parallel.  Processing of what is received is 
+ * left to the next slot, and done in turn for each object that 
+ * received.
+ * @author ykk
+ */
+public interface TwoPhaseRunObject
+    extends RunObject
+{
+    /** Process what is received in the last slot.
+     * Called in turn for each object that received in the last slot,
+     * before the first phase.
+     * @param time current time
+     * @param simulator reference to simulator
+     */
+    public void flush(double time, Simulator simulator);
+
+    /** First phase of slot, deciding on and holding transmission.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return if any event run
+     */
+    public boolean transmit(double time, Simulator simulator);
+
+    /** Second phase of slot, receiving transmissions held in the first.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return if anything is received
+     */
+    public boolean resolve(double time, Simulator simulator);
+}
@@ -10,6 +10,7 @@ import simulation.communications.packets.*;
 import simulation.networks.*;
 import simulation.networks.channels.*;
 import simulation.networks.nodes.*;
+import simulation.distributions.*;
 
 /** Class to implement p-persistent slotted ALOHA.
  * @author ykk
@@ -36,6 +37,10 @@ public class ALOHA
     /** Transmitting in last slot.
      */
     protected boolean lastTransmitted = false;
+    /** Random stream to decide on transmission.
+     * @see RandomStreams
+     */
+    protected RandomStream random = RandomStreams.current().stream();
 
     //Methods
     /** Constructor.
@@ -54,6 +59,18 @@ public class ALOHA
     }
 
     public boolean run(double time, Simulator simulator)
+    {
+	boolean hasPkt = transmit(time, simulator);
+	if (sendingTime == time)
+	    for (int i = 0; i < transmitPartners.size(); i++)
+		commChannel.transmit(this, 
+				     (ALOHA) transmitPartners.get(i), 
+				     sending,
+				     simulator);
+	return hasPkt;
+    }
+
+    public boolean transmit(double time, Simulator simulator)
     {
 	flushReceived(simulator);
 	
@@ -62,12 +79,7 @@ public class ALOHA
 	    if (checkSending(simulator))
 	    {
 		lastTransmitted = true;
-		Packet sendPack = (Packet) processor.get(queue);
-		for (int i = 0; i < transmitPartners.size(); i++)
-		    commChannel.transmit(this, 
-					 (ALOHA) transmitPartners.get(i), 
-					 sendPack,
-					 simulator);
+		hold(processor.get(queue), time);
 	    }
 	    return true;
 	}
@@ -81,7 +93,7 @@ public class ALOHA
      */
     public boolean checkSending(Simulator simulator)
     {
-	return (Math.random() < p);
+	return (random.nextDouble() < p);
     }
 
     public void receive(CommNode source, Object packet, Simulator simulator)
@@ -1,6 +1,7 @@
 package simulation.timebased.mediumaccess;
 
 import simulation.timebased.*;
+import simulation.utilities.references.*;
 import simulation.communications.nodes.*;
 import simulation.communications.channels.*;
 import simulation.communications.queues.*;
@@ -14,8 +15,20 @@ import simulation.utilities.packetprocessors.*;
  */
 public abstract class MACNode
     extends simulation.networks.simulator.MACNode
-    implements RunObject
+    implements TwoPhaseRunObject
 {
+    //Members
+    /** Packet held for transmission by {@link #transmit}.
+     */
+    protected Object sending;
+    /** Time of slot {@link #sending} is transmitted in.
+     */
+    protected double sendingTime = -1;
+    /** Time of last slot a node that can transmit to this node sends in.
+     */
+    protected double hearingTime = -1;
+
+    //Methods
     /** Receive packet from a node.
      * @param source source node of packet
      * @param packet packet delivered
@@ -24,13 +37,16 @@ public abstract class MACNode
     public abstract void receive(CommNode source, Object packet, simulation.timebased.Simulator simulator);
 
     /** Receive packet from a node.
+     * Wakes the node, so that reception is processed in the next slot.
      * @param source source node of packet
      * @param packet packet delivered
      * @param simulator reference to simulator
+     * @see simulation.timebased.Simulator#wake(RunObject)
      */
     public void receive(CommNode source, Object packet, simulation.networks.simulator.Simulator simulator)
     {
 	receive(source, packet, (simulation.timebased.Simulator) simulator);
+	((simulation.timebased.Simulator) simulator).wake(this);
     }
 
     /** Constructor.
@@ -46,6 +62,58 @@ public abstract class MACNode
 	super(coordinate, channel, commChannel, queue, processor);
     }
 
+    /** Hold packet for transmission in current slot.
+     * Marks nodes that can be transmitted to as hearing in the slot, so 
+     * that only those resolve receptions.  Nodes may be marked by several
+     * senders in parallel, all writing the same time.
+     * @param packet packet to transmit
+     * @param time current time
+     * @see #resolve(double, simulation.timebased.Simulator)
+     */
+    protected void hold(Object packet, double time)
+    {
+	sending = packet;
+	sendingTime = time;
+	for (int i = 0; i < transmitPartners.size(); i++)
+	    ((MACNode) transmitPartners.get(i)).hearingTime = time;
+    }
+
+    /** Process received packet from last slot.
+     * @param time time reference
+     */
+    protected abstract void flushReceived(TimeReference time);
+
+    public void flush(double time, simulation.timebased.Simulator simulator)
+    {
+	flushReceived(simulator);
+    }
+
+    /** Receive packets held for transmission in current slot by 
+     * nodes that can transmit to this node, through the communication
+     * channel.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return if anything is received
+     */
+    public boolean resolve(double time, simulation.timebased.Simulator simulator)
+    {
+	if (hearingTime != time)
+	    return false;
+
+	boolean received = false;
+	MACNode source;
+	for (int i = 0; i < receivePartners.size(); i++)
+	{
+	    source = (MACNode) receivePartners.get(i);
+	    if (source.sendingTime == time)
+	    {
+		commChannel.transmit(source, this, source.sending, simulator);
+		received = true;
+	    }
+	}
+	return received;
+    }
+
     public boolean needMoreRun()
     {
 	return !queue.isEmpty();
@@ -59,6 +59,18 @@ public class TDMA
     }
     
     public boolean run(double time, Simulator simulator)
+    {
+	boolean hasPkt = transmit(time, simulator);
+	if (sendingTime == time)
+	    for (int i = 0; i < transmitPartners.size(); i++)
+		commChannel.transmit(this, 
+				     (TDMA) transmitPartners.get(i), 
+				     sending,
+				     simulator);
+	return hasPkt;
+    }
+
+    public boolean transmit(double time, Simulator simulator)
     {
 	flushReceived(simulator);
 	
@@ -66,13 +78,8 @@ public class TDMA
 	{
 	    if (checkSending(simulator))
 	    {
-		Packet sendPack = (Packet) processor.get(queue);
 		lastTransmitted = true;
-		for (int i = 0; i < transmitPartners.size(); i++)
-		    commChannel.transmit(this, 
-					 (TDMA) transmitPartners.get(i), 
-					 sendPack,
-					 simulator);
+		hold(processor.get(queue), time);
 	    }
 	    return true;
 	}
@@ -10,12 +10,19 @@ import simulation.distributions.*;
  */
 public class PacketSource
     extends simulation.networks.simulator.PacketSource
-    implements RunObject
+    implements SkippableRunObject
 {
     //Members
     /** Distribution of packet number in a slot.
      */
     public Distribution pktNumber;
+    /** Maximum number of slots to draw packet numbers ahead for,
+     * when idle.
+     */
+    public int lookahead = 65536;
+    /** Packet number drawn ahead for next run, -1 if none.
+     */
+    protected int pending = -1;
 
     //Methods
     /** Constructor.
@@ -51,7 +58,14 @@ public class PacketSource
 	    ((generatedNo < packetNumber) && (countGenerated)) ||
 	    ((admittedNo < packetNumber) && (!countGenerated)))
 	{
-	    int thisNo = (int) Math.round(pktNumber.getInstance());
+	    int thisNo;
+	    if (pending >= 0)
+	    {
+		thisNo = pending;
+		pending = -1;
+	    }
+	    else
+		thisNo = (int) Math.round(pktNumber.getInstance());
 	    for (int i = 0; i < thisNo; i++)
 		newPacket(simulator);
 	    return true;
@@ -60,6 +74,42 @@ public class PacketSource
 	    return false;
     }
 
+    /** Number of slots following the current one without packets.
+     * Packet numbers are drawn ahead slot by slot, in the same order
+     * {@link #run(double, Simulator)} would draw them, until a slot 
+     * with packets is found.
+     * @param time current time
+     * @param simulator reference to simulator
+     * @return number of idle slots, or -1 if no more packets
+     */
+    public long idleSlots(double time, Simulator simulator)
+    {
+	if ((packetNumber == 0) || 
+	    ((generatedNo < packetNumber) && (countGenerated)) ||
+	    ((admittedNo < packetNumber) && (!countGenerated)))
+	{
+	    for (int i = 0; i < lookahead; i++)
+	    {
+		pending = (int) Math.round(pktNumber.getInstance());
+		if (pending > 0)
+		    return i;
+	    }
+	    return lookahead-1;
+	}
+	else
+	    return -1;
+    }
+
+    /** Create new packet, and wake source node to send it.
+     * @param simulator reference to simulator
+     */
+    public void newPacket(simulation.networks.simulator.Simulator simulator)
+    {
+	super.newPacket(simulator);
+	if (simulator instanceof Simulator)
+	    ((Simulator) simulator).wake((RunObject) source);
+    }
+
     /** Indicate if object needs more run.
      * If infinitely generating, then always return false.
      * @return if more runs is needed
@@ -17,6 +17,6 @@ public class Constant
      */
     public double cost(Node source, Node destination)
     {
-	return (source.transmitPartners.contains(destination))?1.0:Double.POSITIVE_INFINITY;
+	return (source.isTransmitPartner(destination))?1.0:Double.POSITIVE_INFINITY;
     }
 }
@@ -17,7 +17,7 @@ public class Distance
      */
     public double cost(Node source, Node destination)
     {
-	if(source.transmitPartners.contains(destination))
+	if(source.isTransmitPartner(destination))
 	    return source.distance(destination);
 	else
 	    return Double.POSITIVE_INFINITY;
@@ -28,7 +28,7 @@ public class ExpectedTx
      */
     public double cost(Node source, Node destination)
     {
-	if(source.transmitPartners.contains(destination))
+	if(source.isTransmitPartner(destination))
 	    return 1.0/Math.pow(Math.E,source.distance(destination)*exponent);
 	else
 	    return Double.POSITIVE_INFINITY;
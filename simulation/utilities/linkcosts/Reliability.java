@@ -38,7 +38,7 @@ public class Reliability
      */
     public double cost(Node source, Node destination)
     {
-	if(source.transmitPartners.contains(destination))
+	if(source.isTransmitPartner(destination))
 	    return Math.pow(Math.E,source.distance(destination)*exponent);
 	else
 	    return 0.0;
@@ -15,6 +15,9 @@ public class Random
      * Defaulted to one.
      */
     public int nodeNumber = 1; 
+    /** Random stream to select nodes with.
+     */
+    private RandomStream random = RandomStreams.current().stream();
     
     //Methods
     /** Constructor.
@@ -42,7 +45,7 @@ public class Random
 	{
 	    result = (Vector) nodes.clone();
 	    while (result.size() > nodeNumber)
-		result.remove((int) Math.floor((new Uniform(0,nodes.size())).getInstance()));
+		result.remove((int) Math.floor(random.nextDouble()*result.size()));
 	}
 	else
 	{
@@ -50,7 +53,7 @@ public class Random
 	    result = new Vector();
 	    while (result.size() < nodeNumber)
 		result.add(old.remove((int) Math.
-				      floor((new Uniform(0,nodes.size())).getInstance())));
+				      floor(random.nextDouble()*old.size())));
 	}
 	return result;
     }
@@ -21,7 +21,7 @@ public class AlwaysFull
     public TimeReference timeRef;
     /** Delay result container.
      */
-    public Result delay = new Result();
+    public ResultVar delay = new ResultVar();
     /** Reference to last packet.
      */
     private TimedPacket lastPacket=null;
@@ -7,6 +7,7 @@ import simulation.communications.nodes.*;
  * @author ykk
  */
 public abstract class PacketProcessor
+    implements java.io.Serializable
 {
     /** Function to receive packets.
      * @param source source node
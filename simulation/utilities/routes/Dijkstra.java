@@ -91,7 +91,7 @@ public class Dijkstra
 		if (rootIsSource)
 		{
 		    costToParent = ((Double) 
-				    costToNode.get(tree.nodes.indexOf(minCostLink.source))).doubleValue();
+				    costToNode.get(tree.indexOf(minCostLink.source))).doubleValue();
 		    costOfLink = linkCost.cost(minCostLink.source, minCostLink.destination);
 		    costToNode.add(new Double(costSum(costToParent,costOfLink)));
 		    nodes.remove(minCostLink.destination);
@@ -100,7 +100,7 @@ public class Dijkstra
 		{
 		    costToParent = ((Double) 
 				    costToNode.get(tree.
-						   nodes.indexOf(minCostLink.destination))).doubleValue();
+						   indexOf(minCostLink.destination))).doubleValue();
 		    costOfLink = linkCost.cost(minCostLink.source, minCostLink.destination);
 		    costToNode.add(new Double(costSum(costToParent,costOfLink)));
 		    nodes.remove(minCostLink.source);
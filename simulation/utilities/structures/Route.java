@@ -48,7 +48,7 @@ public class Route
 	for (int i = 0; i < size(); i++)
 	{
 	    Link link = (Link) get(i);
-	    if (link.source.transmitPartners.indexOf(link.destination) == -1)
+	    if (!link.source.isTransmitPartner(link.destination))
 		return false;
 	}
 
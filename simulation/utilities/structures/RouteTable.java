@@ -1,6 +1,7 @@
 package simulation.utilities.structures;
 
 import java.util.*;
+import simulation.networks.*;
 import simulation.networks.nodes.*;
 import simulation.utilities.structures.*;
 
@@ -21,6 +22,9 @@ public class RouteTable
      * Cloned from vector given at construction.
      */
     public Vector nodes;
+    /** Index of nodes.
+     */
+    protected NodeIndex index;
 
     //Methods
     /** Constructor for a route table, given set of nodes.
@@ -30,6 +34,7 @@ public class RouteTable
     {
 	int nodeNumber = nodes.size();
 	this.nodes = (Vector) nodes.clone();
+	index = new NodeIndex(this.nodes);
 	nextHop = new Node[nodeNumber][nodeNumber];
 
 	//Set initial
@@ -49,12 +54,12 @@ public class RouteTable
     public int treeSize(Node node, boolean rootIsSource)
     {
 	int size = 0;
-	int index = nodes.indexOf(node);
+	int row = index.indexOf(node);
 	for (int i = 0; i < nodes.size(); i++)
 	    if (rootIsSource)
-		size += (nextHop[index][i] != null) ?1:0;
+		size += (nextHop[row][i] != null) ?1:0;
 	    else
-		size += (nextHop[i][index] != null) ?1:0;
+		size += (nextHop[i][row] != null) ?1:0;
 
 	return size;
     }
@@ -93,7 +98,7 @@ public class RouteTable
      */
     public void assignNextHop(Node source, Node destination, Node nextHop)
     {
-	this.nextHop[nodes.indexOf(source)][nodes.indexOf(destination)] = nextHop;
+	this.nextHop[index.indexOf(source)][index.indexOf(destination)] = nextHop;
     }
 
     /** Get next hop between source and destination.
@@ -103,7 +108,7 @@ public class RouteTable
      */
     public Node nextHop(Node source, Node destination)
     {
-	return nextHop[nodes.indexOf(source)][nodes.indexOf(destination)];
+	return nextHop[index.indexOf(source)][index.indexOf(destination)];
     }
 
     /** Return route from source to destination.
@@ -122,7 +127,7 @@ public class RouteTable
 	    source = nextHop(source,destination);
 	}
 
-	route.cost = cost[nodes.indexOf(source)][nodes.indexOf(destination)];
+	route.cost = cost[index.indexOf(source)][index.indexOf(destination)];
 	if (source == null)
 	    return null;
 	else
@@ -137,7 +142,7 @@ public class RouteTable
     public RouteTree getRouteTree(Node root, boolean rootIsSource)
     {
 	RouteTree tree = new RouteTree(root, rootIsSource);
-	int rootIndex = nodes.indexOf(root);
+	int rootIndex = index.indexOf(root);
 	Route route;
 
 	for (int i = 0; i < nodes.size(); i++)
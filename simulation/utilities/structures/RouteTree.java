@@ -18,6 +18,9 @@ public class RouteTree
     /** List of nodes.
      */
     public Vector nodes = new Vector();
+    /** Index of nodes.
+     */
+    private NodeIndex index = new NodeIndex(nodes);
     /** List of cost to node. 
      */
     public Vector costToNode = new Vector();
@@ -42,7 +45,7 @@ public class RouteTree
     {
 	this.root = new RouteTreeNode(null, root);
 	this.rootIsSource = rootIsSource;
-	nodes.add(root);
+	index.add(root);
 	treeNodes.add(this.root);
     }
 
@@ -94,13 +97,25 @@ public class RouteTree
 	return route;
     }
 
+    /** Return index of node in {@link #nodes}.
+     * @param node node to find
+     * @return index of node, -1 if not in tree
+     * @see NodeIndex
+     */
+    public int indexOf(Node node)
+    {
+	if (index.nodes != nodes)
+	    index = new NodeIndex(nodes);
+	return index.indexOf(node);
+    }
+
     /** Get route tree node of node.
      * @param node node to get route tree node for
      * @return route tree node with node as reference
      */
     private RouteTreeNode getRouteTreeNode(Node node)
     {
-	return (RouteTreeNode) treeNodes.get(nodes.indexOf(node));
+	return (RouteTreeNode) treeNodes.get(indexOf(node));
     }
     
     /** Add child node to parent.
@@ -109,11 +124,11 @@ public class RouteTree
      */
     public void add(Node parent, Node node)
     {
-	if (nodes.indexOf(parent) == -1)
+	if (indexOf(parent) == -1)
 	    throw new RuntimeException(this+" cannot find parent "+parent+" in existing tree.");
 
 	RouteTreeNode treeParent =  getRouteTreeNode(parent);
-	nodes.add(node);
+	index.add(node);
 	treeNodes.add(new RouteTreeNode(treeParent, node));
     }
 
@@ -156,9 +171,9 @@ public class RouteTree
     {
 	int childIndex;
 	if (rootIsSource)
-	    childIndex = nodes.indexOf(link.destination);
+	    childIndex = indexOf(link.destination);
 	else
-	    childIndex = nodes.indexOf(link.source);
+	    childIndex = indexOf(link.source);
 	
 	return (childIndex != -1);
     }
@@ -184,7 +199,7 @@ public class RouteTree
      */
     public double getRouteCost(Node node)
     {
-	int j = nodes.indexOf(node);
+	int j = indexOf(node);
 	if (j < costToNode.size())
 	    return ((Double) costToNode.get(j)).doubleValue();
 	else